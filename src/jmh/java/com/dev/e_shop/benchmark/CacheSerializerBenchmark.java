@@ -0,0 +1,91 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.config.cache.CompactCacheSerializer;
+import com.dev.e_shop.dto.PaginationResponse;
+import com.dev.e_shop.product.dto.ProductPreviewResponse;
+import com.dev.e_shop.product.dto.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Encode and decode time of the cache value serializers, with the payload size
+ * reported as the {@code bytes} secondary metric.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheSerializerBenchmark {
+
+    @Param({"product", "pagination", "cart"})
+    String payload;
+
+    @Param({"json", "binary"})
+    String format;
+
+    RedisSerializer<Object> serializer;
+    Object value;
+    byte[] encoded;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = format.equals("json") ? json : new CompactCacheSerializer(json, 1024);
+
+        value = switch (payload) {
+            case "product" -> new ProductResponse(1, "Iphone 16", new BigDecimal("300.0"),
+                    "A new phone is...", 1, "Apple", "/img/iphone-16.png");
+            case "pagination" -> paginationPayload(20);
+            default -> new CartResponse(IntStream.range(0, 10)
+                    .mapToObj(i -> new CartDto(i, 100 + i, 1 + i % 3))
+                    .collect(Collectors.toSet()), new BigDecimal("4520.00"));
+        };
+        encoded = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadSize size) {
+        byte[] bytes = serializer.serialize(value);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static Map<String, Object> paginationPayload(int size) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("products", IntStream.range(0, size)
+                .mapToObj(i -> new ProductPreviewResponse(i, "Iphone " + i, new BigDecimal("300.00")))
+                .toList());
+        data.put("pagination", new PaginationResponse(0, 10, size * 10L, size));
+
+        return data;
+    }
+}
@@ -0,0 +1,59 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.auth.JwtService;
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    static final String SECRET = "ZHVtbXlfc2VjcmV0X2tleV9kdW1teV9zZWNyZXRfa2V5X2R1bW15X3NlY3JldA==";
+
+    JwtService jwtService;
+    UserDetail userDetail;
+    String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(Clock.systemUTC());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "keyId", "default");
+        ReflectionTestUtils.setField(jwtService, "previousKeys", "");
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaximumSize", 10_000L);
+        jwtService.init();
+
+        User user = new User();
+        user.setId(1);
+        user.setEmail("user@gmail.com");
+        user.setPassword("password");
+        userDetail = new UserDetail(user);
+
+        token = jwtService.generateToken(userDetail);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetail);
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtService.extractClaims(token);
+    }
+
+    //a fresh token per call always misses the verified-token cache
+    @Benchmark
+    public Claims generateAndExtractClaims() {
+        return jwtService.extractClaims(jwtService.generateToken(userDetail));
+    }
+}
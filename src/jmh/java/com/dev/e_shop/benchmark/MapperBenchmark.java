@@ -0,0 +1,66 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.order.Order;
+import com.dev.e_shop.order.dto.OrderResponse;
+import com.dev.e_shop.order.mapper.OrderMapper;
+import com.dev.e_shop.order.mapper.OrderMapperImpl;
+import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.dto.ProductPreviewResponse;
+import com.dev.e_shop.product.dto.ProductResponse;
+import com.dev.e_shop.product.mapper.ProductMapper;
+import com.dev.e_shop.product.mapper.ProductMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    ProductMapper productMapper = new ProductMapperImpl();
+    OrderMapper orderMapper = new OrderMapperImpl();
+
+    Product product;
+    Order order;
+
+    @Setup
+    public void setUp() {
+        product = Product.builder()
+                .id(1)
+                .name("Iphone 16")
+                .price(new BigDecimal("300.0"))
+                .description("A new phone is...")
+                .brand("Apple")
+                .imgUrl("/#")
+                .build();
+
+        order = Order.builder()
+                .id(1)
+                .userId(1)
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("600.0"))
+                .createAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse toProductResponse() {
+        return productMapper.toProductResponse(product);
+    }
+
+    @Benchmark
+    public ProductPreviewResponse toProductPreviewResponse() {
+        return productMapper.toProductPreviewResponse(product);
+    }
+
+    @Benchmark
+    public OrderResponse toOrderResponse() {
+        return orderMapper.toOrderResponse(order);
+    }
+}
@@ -0,0 +1,107 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.EShopApplication;
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.order.dto.OrderResponse;
+import com.dev.e_shop.order.user.UserOrderService;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Places one order from a fresh cart of {@code items} products against H2, to
+ * show how checkout latency grows with the number of items.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCheckoutBenchmark {
+    static final long USER_ID = 1L;
+
+    @Param({"1", "10", "50"})
+    int items;
+
+    ConfigurableApplicationContext context;
+    UserOrderService userOrderService;
+    UserCartRepository userCartRepository;
+    UserDetail userDetail;
+    List<Product> products;
+    OrderRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EShopApplication.class)
+                .properties(
+                        "DB_URL=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "DB_USERNAME=sa",
+                        "DB_PASSWORD=",
+                        "SECRET_KEY=" + JwtServiceBenchmark.SECRET,
+                        "REDIS_HOST=localhost",
+                        "REDIS_PORT=6379",
+                        "REDIS_PASSWORD=")
+                .run("--server.port=0",
+                        "--spring.cache.type=none",
+                        "--spring.docker.compose.enabled=false",
+                        "--logging.level.root=warn");
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        products = productRepository.saveAll(IntStream.range(0, items)
+                .mapToObj(i -> Product.builder()
+                        .name("Iphone " + i)
+                        .price(new BigDecimal("300.00"))
+                        .brand("Apple")
+                        .stock(Integer.MAX_VALUE)
+                        .build())
+                .toList());
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setEmail("user@gmail.com");
+        user.setPassword("password");
+        userDetail = new UserDetail(user);
+
+        userOrderService = context.getBean(UserOrderService.class);
+        userCartRepository = context.getBean(UserCartRepository.class);
+    }
+
+    //checkout empties the cart, so each call starts from a new one
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        List<Cart> carts = userCartRepository.saveAll(products.stream()
+                .map(product -> Cart.builder()
+                        .userId(USER_ID)
+                        .productId(product.getId())
+                        .quantity(1)
+                        .build())
+                .toList());
+
+        request = new OrderRequest(carts.stream()
+                .map(cart -> new CartDto(cart.getId(), cart.getProductId(), cart.getQuantity()))
+                .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResponse create() {
+        return userOrderService.create(userDetail, request);
+    }
+}
@@ -0,0 +1,69 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.mapper.ProductMapperImpl;
+import com.dev.e_shop.product.publics.PublicProductService;
+import com.dev.e_shop.product.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the paginated product response from an in-memory page, so only the
+ * mapping done by {@code createDataByPagination} is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPaginationBenchmark {
+
+    @Param({"20", "100"})
+    int size;
+
+    PublicProductService publicProductService;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = IntStream.range(0, size)
+                .mapToObj(i -> Product.builder()
+                        .id(i)
+                        .name("Iphone " + i)
+                        .price(new BigDecimal("300.00"))
+                        .brand("Apple")
+                        .build())
+                .toList();
+        Page<Product> page = new PageImpl<>(products, PageRequest.of(0, size), size * 10L);
+
+        ProductRepository productRepository = (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && args != null && args.length == 1) {
+                        return page;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        publicProductService = new PublicProductService(
+                productRepository,
+                new ProductMapperImpl(),
+                new ProductSearchIndex(productRepository));
+    }
+
+    @Benchmark
+    public Map<String, Object> getProductsByPagination() {
+        return publicProductService.getProductsByPagination(0, size);
+    }
+}
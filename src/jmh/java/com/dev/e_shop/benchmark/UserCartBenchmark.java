@@ -0,0 +1,83 @@
+package com.dev.e_shop.benchmark;
+
+import com.dev.e_shop.EShopApplication;
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.UserCartService;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a cart from H2 with caching disabled, so every call runs the item and
+ * total queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserCartBenchmark {
+    static final long USER_ID = 1L;
+
+    @Param({"10"})
+    int items;
+
+    ConfigurableApplicationContext context;
+    UserCartService userCartService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EShopApplication.class)
+                .properties(
+                        "DB_URL=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "DB_USERNAME=sa",
+                        "DB_PASSWORD=",
+                        "SECRET_KEY=" + JwtServiceBenchmark.SECRET,
+                        "REDIS_HOST=localhost",
+                        "REDIS_PORT=6379",
+                        "REDIS_PASSWORD=")
+                .run("--server.port=0",
+                        "--spring.cache.type=none",
+                        "--spring.docker.compose.enabled=false",
+                        "--logging.level.root=warn");
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        UserCartRepository userCartRepository = context.getBean(UserCartRepository.class);
+
+        IntStream.range(0, items).forEach(i -> {
+            Product product = productRepository.save(Product.builder()
+                    .name("Iphone " + i)
+                    .price(new BigDecimal("300.00"))
+                    .brand("Apple")
+                    .stock(100)
+                    .build());
+
+            userCartRepository.save(Cart.builder()
+                    .userId(USER_ID)
+                    .productId(product.getId())
+                    .quantity(1 + i % 3)
+                    .build());
+        });
+
+        userCartService = context.getBean(UserCartService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartResponse getCartByUserId() {
+        return userCartService.getCartByUserId(USER_ID);
+    }
+}
@@ -1,15 +1,23 @@
 package com.dev.e_shop.auth;
 
 import com.dev.e_shop.user.UserDetail;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -21,12 +29,74 @@ public class JwtService {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    //id written to the kid header of new tokens
+    @Value("${jwt.key-id:default}")
+    private String keyId;
+
+    //retired keys still accepted for verification, as "kid:base64secret,kid:base64secret"
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys;
+
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLE_CLAIM = "role";
+
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
     private final Clock clock;
 
+    private SecretKey signingKey;
+    private Map<String, SecretKey> verificationKeys;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
     public JwtService(Clock clock) {
         this.clock = clock;
     }
 
+    @PostConstruct
+    public void init() {
+        signingKey = toKey(secretKey);
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        Arrays.stream(previousKeys.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .forEach(entry -> {
+                    String[] parts = entry.split(":", 2);
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("jwt.previous-keys entries must be kid:secret");
+                    }
+                    keys.put(parts[0], toKey(parts[1]));
+                });
+        keys.put(keyId, signingKey);
+        verificationKeys = Map.copyOf(keys);
+
+        parser = Jwts.parser()
+                .keyLocator(this::locateKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        return timeToExpiry(claims).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return timeToExpiry(claims).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     public String generateToken(UserDetail userDetail) {
         Instant now = clock.instant();
@@ -35,31 +105,70 @@ public class JwtService {
         Map<String, Object> claims = createClaims(userDetail);
 
         return Jwts.builder()
+                .header().keyId(keyId).and()
                 .subject(userDetail.getUsername())
                 .claims(claims)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiration))
-                .signWith(getSecretKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-
+    //reuses the claims of an earlier verification until the token expires
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSecretKey())
-                .clock((() -> Date.from(clock.instant())))
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String tokenHash = hash(token);
+
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null && isNotExpired(cached)) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+
+        return claims;
     }
 
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
 
-    private Key getSecretKey() {
-        byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Key locateKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            return signingKey;
+        }
+
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+
+        return key;
+    }
+
+    private boolean isNotExpired(Claims claims) {
+        return claims.getExpiration().toInstant().isAfter(clock.instant());
+    }
+
+    private Duration timeToExpiry(Claims claims) {
+        Duration remaining = Duration.between(clock.instant(), claims.getExpiration().toInstant());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
     private Map<String, Object>  createClaims(UserDetail userDetail) {
@@ -68,7 +177,8 @@ public class JwtService {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        claims.put("role", roles);
+        claims.put(USER_ID_CLAIM, userDetail.getId());
+        claims.put(ROLE_CLAIM, roles);
 
         return claims;
     }
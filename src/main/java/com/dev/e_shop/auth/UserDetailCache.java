@@ -0,0 +1,47 @@
+package com.dev.e_shop.auth;
+
+import com.dev.e_shop.user.UserDetail;
+import com.dev.e_shop.user.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+//per-node UserDetail cache, evicted after commit on local user changes
+@Component
+public class UserDetailCache {
+    static final String CACHE_NAME = "userDetails";
+
+    private final Cache<String, UserDetail> cache;
+
+    public UserDetailCache(MeterRegistry meterRegistry,
+                           @Value("${auth.user-cache.ttl:PT1M}") Duration ttl,
+                           @Value("${auth.user-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public UserDetail get(String email, Function<String, UserDetail> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+}
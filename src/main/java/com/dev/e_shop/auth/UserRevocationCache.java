@@ -0,0 +1,48 @@
+package com.dev.e_shop.auth;
+
+import com.dev.e_shop.user.UserRepository;
+import com.dev.e_shop.user.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+//caches per user the instant before which tokens are rejected
+@Component
+public class UserRevocationCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, Instant> validAfter;
+
+    public UserRevocationCache(UserRepository userRepository,
+                               @Value("${jwt.revocation-cache.ttl:PT30S}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.validAfter = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public boolean isRevoked(long userId, Instant issuedAt) {
+        Instant notBefore = validAfter.get(userId, this::loadValidAfter);
+
+        return issuedAt.isBefore(notBefore);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        validAfter.invalidate(event.userId());
+    }
+
+    //iat has second precision, a token issued in the same second as the change stays valid
+    private Instant loadValidAfter(long userId) {
+        return userRepository.findUpdatedAtById(userId)
+                .map(updatedAt -> updatedAt.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS))
+                .orElse(Instant.MAX);
+    }
+}
@@ -1,9 +1,13 @@
 package com.dev.e_shop.auth.config;
 
+import com.dev.e_shop.auth.BoundedPasswordEncoder;
 import com.dev.e_shop.auth.CustomAuthProvider;
+import com.dev.e_shop.auth.UserDetailCache;
 import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
 import com.dev.e_shop.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,29 +19,43 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class UserManagementConfig {
     private final UserRepository userRepository;
+    private final UserDetailCache userDetailCache;
 
-    public UserManagementConfig(UserRepository userRepository) {
+    public UserManagementConfig(UserRepository userRepository, UserDetailCache userDetailCache) {
         this.userRepository = userRepository;
+        this.userDetailCache = userDetailCache;
     }
 
     @Bean
     UserDetailsService userDetailsService() {
-        return username -> {
-            User user = userRepository.findByEmail(username)
+        return username -> userDetailCache.get(username, email -> {
+            User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new UsernameNotFoundException("Invalid username or password"));
 
             return new UserDetail(user);
-        };
+        });
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                    @Value("${auth.password.bcrypt-strength:10}") int strength,
+                                    @Value("${auth.password.hash-threads:0}") int threads,
+                                    @Value("${auth.password.hash-queue-capacity:64}") int queueCapacity,
+                                    @Value("${auth.password.hash-timeout:PT3S}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(strength),
+                poolSize,
+                queueCapacity,
+                timeout,
+                meterRegistry);
     }
 
     @Bean
@@ -46,11 +64,11 @@ public class UserManagementConfig {
     }
 
     @Bean
-    AuthenticationProvider authenticationProvider() {
+    AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
 
         return authProvider;
     }
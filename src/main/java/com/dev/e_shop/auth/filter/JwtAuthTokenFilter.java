@@ -1,7 +1,11 @@
 package com.dev.e_shop.auth.filter;
 
 import com.dev.e_shop.auth.JwtService;
+import com.dev.e_shop.auth.UserRevocationCache;
+import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
+import com.dev.e_shop.user.role.Roles;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -10,6 +14,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,13 +29,22 @@ import java.io.IOException;
 @Component
 public class JwtAuthTokenFilter extends OncePerRequestFilter {
     private final String JWT_TYPE = "Bearer";
+    private final String ROLE_PREFIX = "ROLE_";
+
+    //build the principal from the token claims instead of loading the user on every request
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserRevocationCache userRevocationCache;
 
-    public JwtAuthTokenFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthTokenFilter(JwtService jwtService,
+                              UserDetailsService userDetailsService,
+                              UserRevocationCache userRevocationCache) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.userRevocationCache = userRevocationCache;
     }
 
     @Override
@@ -49,17 +63,15 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         try{
             String token = authHeader.split(" ")[1];
-            String email = jwtService.extractUsername(token);
-            if (email != null && authentication == null) {
-                UserDetail userDetails = (UserDetail) userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (stateless) {
+                if (authentication == null) {
+                    authenticateFromClaims(request, jwtService.extractClaims(token));
+                }
+            } else {
+                String email = jwtService.extractUsername(token);
+                if (email != null && authentication == null) {
+                    setAuthentication(request, (UserDetail) userDetailsService.loadUserByUsername(email));
+                }
             }
         } catch (ExpiredJwtException ex) {
             request.setAttribute("jwt_exception", ex);
@@ -77,4 +89,36 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticateFromClaims(HttpServletRequest request, Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+
+        //tokens issued before the claims existed still go through the user lookup
+        if (userId == null || role == null) {
+            setAuthentication(request, (UserDetail) userDetailsService.loadUserByUsername(claims.getSubject()));
+            return;
+        }
+
+        if (userRevocationCache.isRevoked(userId, claims.getIssuedAt().toInstant())) {
+            throw new JwtException("JWT token has been revoked");
+        }
+
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(claims.getSubject());
+        user.setRole(Roles.valueOf(role.substring(ROLE_PREFIX.length())));
+
+        setAuthentication(request, new UserDetail(user));
+    }
+
+    private void setAuthentication(HttpServletRequest request, UserDetail userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
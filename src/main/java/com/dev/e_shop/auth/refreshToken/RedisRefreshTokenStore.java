@@ -0,0 +1,117 @@
+package com.dev.e_shop.auth.refreshToken;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+
+//tokens are hashes keyed by SHA-256 and expire with the token
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+    private static final String TOKEN_PREFIX = "refresh:token:";
+    private static final String USER_PREFIX = "refresh:user:";
+    private static final String USER_ID = "userId";
+    private static final String EXPIRY_DATE = "expiryDate";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRefreshTokenStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        String tokenKey = tokenKey(refreshToken.getToken());
+        String userKey = userKey(refreshToken.getUserId());
+        Date expiryDate = Date.from(refreshToken.getExpiryDate());
+
+        Map<String, String> fields = Map.of(
+                USER_ID, String.valueOf(refreshToken.getUserId()),
+                EXPIRY_DATE, String.valueOf(refreshToken.getExpiryDate().toEpochMilli()));
+
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.opsForHash().putAll(tokenKey, fields);
+                operations.expireAt(tokenKey, expiryDate);
+                //scored by expiry, so the keys of expired tokens can be dropped on the next save
+                operations.opsForZSet().add(userKey, tokenKey, expiryDate.getTime());
+                operations.opsForZSet().removeRangeByScore(userKey, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+                //every save pushes the expiry further out, so the newest token outlives the others
+                operations.expireAt(userKey, expiryDate);
+                return operations.exec();
+            }
+        });
+
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(tokenKey(token));
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setToken(token);
+        refreshToken.setUserId(Long.parseLong((String) fields.get(USER_ID)));
+        refreshToken.setExpiryDate(Instant.ofEpochMilli(Long.parseLong((String) fields.get(EXPIRY_DATE))));
+
+        return Optional.of(refreshToken);
+    }
+
+    @Override
+    public void deleteByToken(String token) {
+        String tokenKey = tokenKey(token);
+        Object userId = redisTemplate.opsForHash().get(tokenKey, USER_ID);
+
+        redisTemplate.delete(tokenKey);
+        if (userId != null) {
+            redisTemplate.opsForZSet().remove(userKey(Long.parseLong((String) userId)), tokenKey);
+        }
+    }
+
+    @Override
+    public void deleteAllByUserId(long userId) {
+        String userKey = userKey(userId);
+        Set<String> tokenKeys = redisTemplate.opsForZSet().range(userKey, 0, -1);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(userKey);
+        if (tokenKeys != null) {
+            keys.addAll(tokenKeys);
+        }
+
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public boolean slidingExpiry() {
+        return true;
+    }
+
+    private String tokenKey(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String userKey(long userId) {
+        return USER_PREFIX + userId;
+    }
+}
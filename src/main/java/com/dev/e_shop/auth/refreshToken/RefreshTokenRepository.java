@@ -1,11 +1,21 @@
 package com.dev.e_shop.auth.refreshToken;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     void deleteByToken(String token);
 
     Optional<RefreshToken> findByToken(String token);
+
+    void deleteByUserId(long userId);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expiryDate < :now ORDER BY r.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Instant now, Limit limit);
 }
@@ -15,12 +15,12 @@ import java.util.Base64;
 public class RefreshTokenService {
     private final int EXPIRY_DAYS = 7;
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final Clock clock;
 
-    public RefreshTokenService(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository, Clock clock) {
+    public RefreshTokenService(UserRepository userRepository, RefreshTokenStore refreshTokenStore, Clock clock) {
         this.userRepository = userRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenStore = refreshTokenStore;
         this.clock = clock;
     }
 
@@ -34,7 +34,7 @@ public class RefreshTokenService {
                     refreshToken.setToken(generateToken());
                     refreshToken.setExpiryDate(clock.instant().plus(EXPIRY_DAYS, ChronoUnit.DAYS));
 
-                    return this.refreshTokenRepository.save(refreshToken);
+                    return this.refreshTokenStore.save(refreshToken);
                 })
                 .orElseThrow(() -> new NotFoundException("Email not found"));
     }
@@ -42,21 +42,33 @@ public class RefreshTokenService {
 
     @Transactional
     public RefreshToken verifyRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenStore.findByToken(token)
                 .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
 
 
         if (refreshToken.getExpiryDate().isBefore(clock.instant())) {
-            refreshTokenRepository.delete(refreshToken);
+            refreshTokenStore.deleteByToken(token);
             throw new InvalidRefreshTokenException("Refresh token expired");
         }
 
-        return refreshToken;
+        if (!refreshTokenStore.slidingExpiry()) {
+            return refreshToken;
+        }
+
+        //sliding expiry, a token in use keeps living
+        refreshToken.setExpiryDate(clock.instant().plus(EXPIRY_DAYS, ChronoUnit.DAYS));
+
+        return refreshTokenStore.save(refreshToken);
     }
 
     @Transactional
     public void deleteRefreshToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+        refreshTokenStore.deleteByToken(token);
+    }
+
+    @Transactional
+    public void deleteAllRefreshTokens(long userId) {
+        refreshTokenStore.deleteAllByUserId(userId);
     }
 
 
@@ -0,0 +1,19 @@
+package com.dev.e_shop.auth.refreshToken;
+
+import java.util.Optional;
+
+//auth.refresh-token.store: jpa (default) or redis
+public interface RefreshTokenStore {
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByToken(String token);
+
+    void deleteByToken(String token);
+
+    void deleteAllByUserId(long userId);
+
+    //whether a refresh pushes the token's expiry out again
+    default boolean slidingExpiry() {
+        return false;
+    }
+}
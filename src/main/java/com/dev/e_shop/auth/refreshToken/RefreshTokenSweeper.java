@@ -0,0 +1,102 @@
+package com.dev.e_shop.auth.refreshToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+//deletes expired tokens in short batches with a pause between them
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class RefreshTokenSweeper {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenSweeper.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatches;
+
+    private final Counter deleted;
+    private final Timer batchTimer;
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               Clock clock,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.refresh-token.sweep.enabled:true}") boolean enabled,
+                               @Value("${auth.refresh-token.sweep.batch-size:500}") int batchSize,
+                               @Value("${auth.refresh-token.sweep.batch-pause:PT0.2S}") Duration batchPause,
+                               @Value("${auth.refresh-token.sweep.max-batches:200}") int maxBatches) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxBatches = maxBatches;
+
+        this.deleted = Counter.builder("auth.refresh-token.sweep.deleted")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.refresh-token.sweep.batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.refresh-token.sweep.interval:PT10M}",
+            fixedDelayString = "${auth.refresh-token.sweep.interval:PT10M}")
+    public int sweep() {
+        if (!enabled) {
+            return 0;
+        }
+
+        Instant now = clock.instant();
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            long start = System.nanoTime();
+
+            List<Long> ids = refreshTokenRepository.findExpiredIds(now, Limit.of(batchSize));
+            if (!ids.isEmpty()) {
+                refreshTokenRepository.deleteAllByIdInBatch(ids);
+            }
+
+            Duration took = Duration.ofNanos(System.nanoTime() - start);
+            batchTimer.record(took);
+            deleted.increment(ids.size());
+            total += ids.size();
+
+            log.debug("Refresh token sweep batch deleted {} rows in {} ms", ids.size(), took.toMillis());
+
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Refresh token sweep deleted {} expired rows", total);
+        }
+
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_carts_user_id_product_id", columnNames = {"user_id", "product_id"})
+}, indexes = {
+        @Index(name = "idx_carts_product_id", columnList = "product_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -12,7 +16,8 @@ import lombok.*;
 @Setter
 public class Cart {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "carts_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,11 @@
+package com.dev.e_shop.cart;
+
+import java.util.Map;
+
+public interface CartUpsertRepository {
+    //single MERGE on (user_id, product_id)
+    void addQuantity(long userId, long productId, int quantity);
+
+    //one batch, a concurrent insert fails it with a duplicate key
+    void addQuantities(long userId, Map<Long, Integer> quantityByProduct);
+}
@@ -0,0 +1,60 @@
+package com.dev.e_shop.cart;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class CartUpsertRepositoryImpl implements CartUpsertRepository {
+    //a sequence value drawn here reserves a whole pooled-lo block, so it never collides with ids Hibernate hands out
+    private static final String MERGE_SQL = """
+            MERGE INTO carts c
+            USING (SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS BIGINT) AS product_id) s
+            ON c.user_id = s.user_id AND c.product_id = s.product_id
+            WHEN MATCHED THEN UPDATE SET quantity = c.quantity + ?
+            WHEN NOT MATCHED THEN INSERT (id, user_id, product_id, quantity)
+                VALUES (NEXT VALUE FOR carts_seq, s.user_id, s.product_id, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CartUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addQuantity(long userId, long productId, int quantity) {
+        try {
+            jdbcTemplate.update(MERGE_SQL, userId, productId, quantity, quantity);
+        } catch (DuplicateKeyException ex) {
+            //a concurrent add inserted the line first, it now matches
+            jdbcTemplate.update(MERGE_SQL, userId, productId, quantity, quantity);
+        }
+    }
+
+    @Override
+    public void addQuantities(long userId, Map<Long, Integer> quantityByProduct) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantityByProduct.entrySet());
+
+        jdbcTemplate.batchUpdate(MERGE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> line = lines.get(i);
+                ps.setLong(1, userId);
+                ps.setLong(2, line.getKey());
+                ps.setInt(3, line.getValue());
+                ps.setInt(4, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+    }
+}
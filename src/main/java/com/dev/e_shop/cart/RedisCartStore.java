@@ -0,0 +1,423 @@
+package com.dev.e_shop.cart;
+
+import com.dev.e_shop.cart.dto.CartBatchRequest;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartOperation;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.cart.total.CartTotalService;
+import com.dev.e_shop.exception.custom.CartItemNotFoundException;
+import com.dev.e_shop.exception.custom.NotFoundException;
+import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.product.publics.PublicProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+//cart.store=redis: cart hash per user, written behind into carts
+@Component
+public class RedisCartStore {
+    private static final Logger log = LoggerFactory.getLogger(RedisCartStore.class);
+
+    static final String CART_PREFIX = "cart:items:";
+    static final String DIRTY_KEY = "cart:dirty";
+    //present in every loaded cart, so an empty cart is not loaded again
+    static final String LOADED_FIELD = "loaded";
+    //products of a committed checkout still to be removed from the cart hash
+    static final String CHECKOUT_PREFIX = "cart:checkout:";
+    private static final Duration CHECKOUT_TTL = Duration.ofMinutes(5);
+
+    //KEYS[1] cart, KEYS[2] dirty set; ARGV[1] product id, ARGV[2] delta, ARGV[3] user id
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            redis.call('SADD', KEYS[2], ARGV[3])
+            return redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+            """, Long.class);
+
+    //KEYS[1] cart, KEYS[2] dirty set; ARGV[1] product id, ARGV[2] quantity, ARGV[3] user id
+    private static final RedisScript<Long> SET = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('SADD', KEYS[2], ARGV[3])
+            return 1
+            """, Long.class);
+
+    //KEYS[1] cart, KEYS[2] dirty set; ARGV[1] user id, ARGV[2..] product ids
+    private static final RedisScript<Long> REMOVE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            local removed = redis.call('HDEL', KEYS[1], unpack(ARGV, 2))
+            if removed > 0 then
+                redis.call('SADD', KEYS[2], ARGV[1])
+            end
+            return removed
+            """, Long.class);
+
+    //KEYS[1] cart, KEYS[2] dirty set; ARGV[1] user id, then (operation, product id, amount) triples.
+    //Returns the position of the first operation on a line not in the cart, nothing is applied then
+    private static final RedisScript<Long> BATCH = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            local present = {}
+            for i = 2, #ARGV, 3 do
+                local operation, field = ARGV[i], ARGV[i + 1]
+                if present[field] == nil then
+                    present[field] = redis.call('HEXISTS', KEYS[1], field) == 1
+                end
+                if operation == 'ADD' then
+                    present[field] = true
+                elseif not present[field] then
+                    return (i + 1) / 3
+                elseif operation == 'REMOVE' then
+                    present[field] = false
+                end
+            end
+            for i = 2, #ARGV, 3 do
+                local operation, field, amount = ARGV[i], ARGV[i + 1], ARGV[i + 2]
+                if operation == 'ADD' then
+                    redis.call('HINCRBY', KEYS[1], field, amount)
+                elseif operation == 'SET_QUANTITY' then
+                    redis.call('HSET', KEYS[1], field, amount)
+                else
+                    redis.call('HDEL', KEYS[1], field)
+                end
+            end
+            redis.call('SADD', KEYS[2], ARGV[1])
+            return 0
+            """, Long.class);
+
+    //KEYS[1] cart, KEYS[2] pending checkout set; ARGV product ids
+    private static final RedisScript<Long> CHECKED_OUT = new DefaultRedisScript<>("""
+            redis.call('SREM', KEYS[2], unpack(ARGV))
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            return redis.call('HDEL', KEYS[1], unpack(ARGV))
+            """, Long.class);
+
+    //KEYS[1] cart; ARGV field/value pairs, starting with the loaded marker
+    private static final RedisScript<Long> LOAD = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                redis.call('HSET', KEYS[1], unpack(ARGV))
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserCartRepository userCartRepository;
+    private final CartTotalService cartTotalService;
+    private final PublicProductService publicProductService;
+    private final boolean enabled;
+    private final int flushBatchSize;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate,
+                          UserCartRepository userCartRepository,
+                          CartTotalService cartTotalService,
+                          PublicProductService publicProductService,
+                          @Value("${cart.store:jpa}") String store,
+                          @Value("${cart.redis.flush-batch-size:100}") int flushBatchSize) {
+        this.redisTemplate = redisTemplate;
+        this.userCartRepository = userCartRepository;
+        this.cartTotalService = cartTotalService;
+        this.publicProductService = publicProductService;
+        this.enabled = "redis".equalsIgnoreCase(store);
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CartResponse getCart(long userId) {
+        Map<Long, Integer> items = readItems(userId);
+
+        Set<CartDto> carts = new HashSet<>();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> item : items.entrySet()) {
+            carts.add(new CartDto(item.getKey(), item.getKey(), item.getValue()));
+            totalPrice = totalPrice.add(priceOf(item.getKey()).multiply(BigDecimal.valueOf(item.getValue())));
+        }
+
+        return new CartResponse(carts, totalPrice);
+    }
+
+    public CartResponse addItem(long userId, long productId) {
+        //throws when the product does not exist, from the product cache when warm
+        publicProductService.getProductDetailById(productId);
+
+        execute(ADD, userId, String.valueOf(productId), "1", String.valueOf(userId));
+        return getCart(userId);
+    }
+
+    public CartResponse setQuantity(long userId, long productId, int quantity) {
+        if (execute(SET, userId, String.valueOf(productId), String.valueOf(quantity), String.valueOf(userId)) == 0) {
+            throw createNotFoundException(productId);
+        }
+        return getCart(userId);
+    }
+
+    public CartResponse removeItem(long userId, long productId) {
+        if (execute(REMOVE, userId, String.valueOf(userId), String.valueOf(productId)) == 0) {
+            throw createNotFoundException(productId);
+        }
+        return getCart(userId);
+    }
+
+    //the whole batch runs as one script, so it is applied entirely or not at all
+    public CartResponse applyBatch(long userId, CartBatchRequest body) {
+        List<CartOperation> operations = body.operations();
+
+        List<String> args = new ArrayList<>(List.of(String.valueOf(userId)));
+        for (CartOperation operation : operations) {
+            long productId = operation.type() == CartOperation.Type.ADD ? operation.productId() : operation.cartItemId();
+            if (operation.type() == CartOperation.Type.ADD) {
+                publicProductService.getProductDetailById(productId);
+            }
+
+            args.add(operation.type().name());
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(operation.type() == CartOperation.Type.REMOVE ? 0 : operation.amountOrOne()));
+        }
+
+        long missing = execute(BATCH, userId, args.toArray(String[]::new));
+        if (missing > 0) {
+            throw createNotFoundException(operations.get((int) missing - 1).cartItemId());
+        }
+        return getCart(userId);
+    }
+
+    //flushes the cart in the checkout transaction and maps product ids to row ids
+    @Transactional(rollbackFor = Exception.class)
+    public OrderRequest prepareCheckout(long userId, OrderRequest body) {
+        userCartRepository.lockUser(userId);
+        Set<Long> pending = readPending(userId);
+        Map<Long, Integer> items = readItems(userId);
+        Map<Long, Long> rowIds = flush(userId, items, pending);
+
+        //the quantities are the ones in the cart, not the submitted ones
+        List<CartDto> lines = body.orderItems().stream()
+                .map(line -> {
+                    Long rowId = rowIds.get(line.getProductId());
+                    if (rowId == null || line.getId() != line.getProductId()) {
+                        throw new CartItemNotFoundException("Cart Item not found");
+                    }
+                    return new CartDto(rowId, line.getProductId(), items.get(line.getProductId()));
+                })
+                .toList();
+
+        //until the lines leave the hash, a flush must not write them back
+        String[] productIds = lines.stream()
+                .map(line -> String.valueOf(line.getProductId()))
+                .toArray(String[]::new);
+        redisTemplate.opsForSet().add(CHECKOUT_PREFIX + userId, productIds);
+        redisTemplate.expire(CHECKOUT_PREFIX + userId, CHECKOUT_TTL);
+        onRollback(() -> redisTemplate.opsForSet().remove(CHECKOUT_PREFIX + userId, (Object[]) productIds));
+
+        return new OrderRequest(lines);
+    }
+
+    //the rows are gone with the checkout, the Redis lines follow
+    public void checkedOut(long userId, Collection<Long> productIds) {
+        Object[] args = productIds.stream()
+                .map(String::valueOf)
+                .toArray();
+
+        afterCommit(() -> redisTemplate.execute(CHECKED_OUT, List.of(CART_PREFIX + userId, CHECKOUT_PREFIX + userId), args));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.redis.flush-interval:PT5S}")
+    @Transactional(rollbackFor = Exception.class)
+    public int flushDirty() {
+        if (!enabled) {
+            return 0;
+        }
+
+        List<String> userIds = redisTemplate.opsForSet().pop(DIRTY_KEY, flushBatchSize);
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            //ascending, so concurrent flushes take the user locks in the same order
+            userIds.stream()
+                    .map(Long::parseLong)
+                    .sorted()
+                    .forEach(userId -> {
+                        userCartRepository.lockUser(userId);
+                        Set<Long> pending = readPending(userId);
+                        flush(userId, readLoadedItems(userId), pending);
+                    });
+        } catch (RuntimeException ex) {
+            redisTemplate.opsForSet().add(DIRTY_KEY, userIds.toArray(String[]::new));
+            throw ex;
+        }
+
+        return userIds.size();
+    }
+
+    //batched update, insert and delete, returns the row id per product
+    private Map<Long, Long> flush(long userId, Map<Long, Integer> items, Set<Long> pending) {
+        if (items == null) {
+            log.warn("Cart of user {} left Redis before it was written, keeping the stored rows", userId);
+            return userCartRepository.findAllByUserId(userId)
+                    .stream()
+                    .collect(Collectors.toMap(Cart::getProductId, Cart::getId, (first, second) -> first));
+        }
+
+        Map<Long, Integer> missing = new HashMap<>(items);
+        Map<Long, Long> rowIds = new HashMap<>();
+        List<Cart> stale = new ArrayList<>();
+        List<Cart> changed = new ArrayList<>();
+
+        for (Cart row : userCartRepository.findAllByUserId(userId)) {
+            Integer quantity = missing.remove(row.getProductId());
+            if (quantity == null) {
+                stale.add(row);
+                continue;
+            }
+            if (row.getQuantity() != quantity) {
+                row.setQuantity(quantity);
+                changed.add(row);
+            }
+            rowIds.put(row.getProductId(), row.getId());
+        }
+
+        missing.keySet().removeAll(pending);
+        missing.forEach((productId, quantity) -> changed.add(Cart.builder()
+                .userId(userId)
+                .productId(productId)
+                .quantity(quantity)
+                .build()));
+
+        if (!stale.isEmpty()) {
+            userCartRepository.deleteAllInBatch(stale);
+        }
+        userCartRepository.saveAll(changed)
+                .forEach(row -> rowIds.put(row.getProductId(), row.getId()));
+        cartTotalService.reset(userId);
+
+        return rowIds;
+    }
+
+    //read before the cart hash, a line removed in between is then missing from the hash too
+    private Set<Long> readPending(long userId) {
+        return redisTemplate.opsForSet().members(CHECKOUT_PREFIX + userId)
+                .stream()
+                .map(Long::parseLong)
+                .collect(Collectors.toSet());
+    }
+
+    private Map<Long, Integer> readItems(long userId) {
+        Map<Long, Integer> items = readLoadedItems(userId);
+        if (items != null) {
+            return items;
+        }
+
+        load(userId);
+        return Objects.requireNonNullElse(readLoadedItems(userId), Map.of());
+    }
+
+    //null when the cart is not in Redis
+    private Map<Long, Integer> readLoadedItems(long userId) {
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(CART_PREFIX + userId);
+        if (hash.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, Integer> items = new TreeMap<>();
+        hash.forEach((field, value) -> {
+            if (!LOADED_FIELD.equals(field)) {
+                items.put(Long.parseLong((String) field), Integer.parseInt((String) value));
+            }
+        });
+        return items;
+    }
+
+    private void load(long userId) {
+        Map<Long, Integer> items = userCartRepository.findItemsByUserid(userId)
+                .stream()
+                .collect(Collectors.toMap(CartDto::getProductId, CartDto::getQuantity, Integer::sum));
+
+        List<String> args = new ArrayList<>(List.of(LOADED_FIELD, "1"));
+        items.forEach((productId, quantity) -> {
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantity));
+        });
+
+        redisTemplate.execute(LOAD, List.of(CART_PREFIX + userId), args.toArray());
+    }
+
+    private long execute(RedisScript<Long> script, long userId, String... args) {
+        List<String> keys = List.of(CART_PREFIX + userId, DIRTY_KEY);
+
+        Long result = redisTemplate.execute(script, keys, (Object[]) args);
+        if (result != null && result == -1) {
+            load(userId);
+            result = redisTemplate.execute(script, keys, (Object[]) args);
+        }
+
+        return result == null ? 0 : result;
+    }
+
+    private BigDecimal priceOf(long productId) {
+        try {
+            return publicProductService.getProductDetailById(productId).price();
+        } catch (NotFoundException ex) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private NotFoundException createNotFoundException(long productId) {
+        return new NotFoundException(String.format("Item cart with ID %d not found in your cart", productId));
+    }
+}
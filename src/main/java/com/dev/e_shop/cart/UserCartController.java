@@ -1,6 +1,7 @@
 package com.dev.e_shop.cart;
 
 import com.dev.e_shop.cart.dto.AddItemRequest;
+import com.dev.e_shop.cart.dto.CartBatchRequest;
 import com.dev.e_shop.cart.dto.CartResponse;
 import com.dev.e_shop.cart.dto.UpdateItemRequest;
 import com.dev.e_shop.dto.ApiResponse;
@@ -14,14 +15,18 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/user/cart")
 public class UserCartController {
     private final UserCartService userCartService;
+    private final RedisCartStore redisCartStore;
 
-    public UserCartController(UserCartService userCartService) {
+    public UserCartController(UserCartService userCartService, RedisCartStore redisCartStore) {
         this.userCartService = userCartService;
+        this.redisCartStore = redisCartStore;
     }
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse> getCartByUserId(@AuthenticationPrincipal UserDetail userDetail) {
-       CartResponse response = userCartService.getCartByUserId(userDetail.getId());
+       CartResponse response = redisCartStore.isEnabled()
+               ? redisCartStore.getCart(userDetail.getId())
+               : userCartService.getCartByUserId(userDetail.getId());
 
         return ResponseEntity.status(200)
                 .body(new ApiResponse(
@@ -35,7 +40,9 @@ public class UserCartController {
     public ResponseEntity<ApiResponse> addCartItem(
             @AuthenticationPrincipal UserDetail userDetail,
             @Valid @RequestBody AddItemRequest body) {
-        var cart = userCartService.addCartItem(body, userDetail);
+        var cart = redisCartStore.isEnabled()
+                ? redisCartStore.addItem(userDetail.getId(), body.productId())
+                : userCartService.addCartItem(body, userDetail);
 
         return ResponseEntity.status(201)
                 .body(new ApiResponse(
@@ -45,11 +52,29 @@ public class UserCartController {
                 ));
     }
 
+    @PostMapping("/me/batch")
+    public ResponseEntity<ApiResponse> applyCartBatch(
+            @AuthenticationPrincipal UserDetail userDetail,
+            @Valid @RequestBody CartBatchRequest body) {
+        var cart = redisCartStore.isEnabled()
+                ? redisCartStore.applyBatch(userDetail.getId(), body)
+                : userCartService.applyBatch(body, userDetail);
+
+        return ResponseEntity.status(200)
+                .body(new ApiResponse(
+                        200,
+                        "Apply the cart operations success",
+                        cart
+                ));
+    }
+
     @PatchMapping("/me")
     public ResponseEntity<ApiResponse> updateCartItem(
             @AuthenticationPrincipal UserDetail userDetail,
             @Valid @RequestBody UpdateItemRequest body) {
-        var cart = userCartService.updateQuantityOfItem(body, userDetail);
+        var cart = redisCartStore.isEnabled()
+                ? redisCartStore.setQuantity(userDetail.getId(), body.cartItemId(), body.amount())
+                : userCartService.updateQuantityOfItem(body, userDetail);
 
         return ResponseEntity.status(200)
                 .body(new ApiResponse(
@@ -63,7 +88,9 @@ public class UserCartController {
     public ResponseEntity<ApiResponse> removeCartItem(
             @AuthenticationPrincipal UserDetail userDetail,
             @PathVariable long id) {
-        var cart = userCartService.removeCartItem(id, userDetail);
+        var cart = redisCartStore.isEnabled()
+                ? redisCartStore.removeItem(userDetail.getId(), id)
+                : userCartService.removeCartItem(id, userDetail);
 
         return ResponseEntity.status(200)
                 .body(new ApiResponse(
@@ -6,11 +6,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-public interface UserCartRepository extends JpaRepository<Cart, Long> {
+public interface UserCartRepository extends JpaRepository<Cart, Long>, CartUpsertRepository {
 
     @Query("SELECT new  com.dev.e_shop.cart.dto.CartDto(id, productId, quantity) FROM Cart WHERE userId = :userId")
     Set<CartDto> findItemsByUserid(@Param("userId") long userId);
@@ -18,10 +19,18 @@ public interface UserCartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT SUM(p.price * c.quantity) FROM Cart c JOIN Product p ON c.productId = p.id WHERE c.userId = :userId")
     BigDecimal calculateTotalPriceByUserId(@Param("userId") Long userId);
 
+    List<Cart> findAllByUserId(long userId);
+
+    @Query("SELECT DISTINCT c.userId FROM Cart c WHERE c.productId = :productId")
+    List<Long> findUserIdsByProductId(@Param("productId") long productId);
+
     Optional<Cart> findByProductIdAndUserId(long productId, long userId);
 
     Optional<Cart> findByIdAndUserId(long id, long userId);
 
-    @Query("SELECT COUNT(c) = :size FROM Cart c WHERE c.id IN :ids AND c.userId = :userId")
-    boolean checkAllIdsExist(@Param("ids") List<Long> ids, @Param("size") long size,@Param("userId") long userId);
+    List<Cart> findAllByIdInAndUserId(Collection<Long> ids, long userId);
+
+    //serializes the write-behind flush and the checkout of one user's Redis cart
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockUser(@Param("userId") long userId);
 }
@@ -1,9 +1,12 @@
 package com.dev.e_shop.cart;
 
 import com.dev.e_shop.cart.dto.AddItemRequest;
+import com.dev.e_shop.cart.dto.CartBatchRequest;
 import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartOperation;
 import com.dev.e_shop.cart.dto.CartResponse;
 import com.dev.e_shop.cart.dto.UpdateItemRequest;
+import com.dev.e_shop.cart.total.CartTotalService;
 import com.dev.e_shop.exception.custom.NotFoundException;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.user.UserDetail;
@@ -13,83 +16,155 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserCartService {
     private final UserCartRepository userCartRepository;
     private final ProductRepository productRepository;
+    private final CartTotalService cartTotalService;
 
-    public UserCartService(UserCartRepository userCartRepository, ProductRepository productRepository) {
+    public UserCartService(UserCartRepository userCartRepository, ProductRepository productRepository, CartTotalService cartTotalService) {
         this.userCartRepository = userCartRepository;
         this.productRepository = productRepository;
+        this.cartTotalService = cartTotalService;
     }
 
     @Transactional
     @CachePut(value = "cart", key = "#userDetail.getId()")
     public CartResponse addCartItem(AddItemRequest body, UserDetail userDetail) {
-        productRepository.findById(body.productId())
+        BigDecimal price = productRepository.findPriceById(body.productId())
                 .orElseThrow(() -> new NotFoundException("Product with ID " + body.productId() + " not found"));
 
-        Optional<Cart> existingCartItem = userCartRepository
-                .findByProductIdAndUserId(body.productId(), userDetail.getId());
-
-        if (existingCartItem.isPresent()) {
-            Cart item = existingCartItem.get();
-            item.setQuantity(item.getQuantity() + 1);
-            userCartRepository.save(item);
-        } else {
-            Cart newCartItem = Cart.builder()
-                    .userId(userDetail.getId())
-                    .productId(body.productId())
-                    .quantity(1)
-                    .build();
-            userCartRepository.save(newCartItem);
-        }
+        userCartRepository.addQuantity(userDetail.getId(), body.productId(), 1);
+        cartTotalService.apply(userDetail.getId(), price);
 
         return getCartByUserId(userDetail.getId());
     }
 
-    @Cacheable(value = "cart", key = "#userId")
+    @Cacheable(value = "cart", sync = true, key = "#userId")
     public CartResponse getCartByUserId(long userId) {
         Set<CartDto> items = this.userCartRepository
                 .findItemsByUserid(userId);
 
-        BigDecimal totalPrice = getTotalPrice(userId);
+        BigDecimal totalPrice = cartTotalService.getTotal(userId);
 
         return new CartResponse(items, totalPrice);
     }
 
-    private BigDecimal getTotalPrice(long userId) {
-        BigDecimal totalPrice = this.userCartRepository.calculateTotalPriceByUserId(userId);
-        return totalPrice != null ? totalPrice : BigDecimal.ZERO;
-    }
-
     @Transactional
     @CachePut(value = "cart", key = "#userDetail.getId()")
     public CartResponse updateQuantityOfItem(UpdateItemRequest body, UserDetail userDetail) {
-        userCartRepository.findByIdAndUserId(body.cartItemId(), userDetail.getId())
-                .map(item -> {
-                    item.setQuantity(body.amount());
-                    return this.userCartRepository.save(item);
-                })
+        Cart item = userCartRepository.findByIdAndUserId(body.cartItemId(), userDetail.getId())
                 .orElseThrow(() -> createNotFoundException(body.cartItemId()));
 
+        int quantityDelta = body.amount() - item.getQuantity();
+        item.setQuantity(body.amount());
+        this.userCartRepository.save(item);
+        cartTotalService.apply(userDetail.getId(), getLinePrice(item.getProductId(), quantityDelta));
+
         return getCartByUserId(userDetail.getId());
     }
 
     @Transactional
     @CachePut(value = "cart", key = "#userDetail.getId()")
     public CartResponse removeCartItem(long id, UserDetail userDetail) {
-        this.userCartRepository.findByIdAndUserId(id, userDetail.getId())
+        Cart item = this.userCartRepository.findByIdAndUserId(id, userDetail.getId())
                 .orElseThrow(()-> createNotFoundException(id));
 
         this.userCartRepository.deleteById(id);
+        cartTotalService.apply(userDetail.getId(), getLinePrice(item.getProductId(), -item.getQuantity()));
 
         return getCartByUserId(userDetail.getId());
     }
 
+    //applies the operations in order and writes only the net result
+    @Transactional
+    @CachePut(value = "cart", key = "#userDetail.getId()")
+    public CartResponse applyBatch(CartBatchRequest body, UserDetail userDetail) {
+        long userId = userDetail.getId();
+        Map<Long, Cart> lines = userCartRepository.findAllByUserId(userId)
+                .stream()
+                .collect(Collectors.toMap(Cart::getId, Function.identity()));
+
+        Map<Long, Integer> before = lines.values()
+                .stream()
+                .collect(Collectors.toMap(Cart::getProductId, Cart::getQuantity));
+        Map<Long, Integer> after = new HashMap<>(before);
+        Set<Long> addedProductIds = new HashSet<>();
+
+        for (CartOperation operation : body.operations()) {
+            switch (operation.type()) {
+                case ADD -> {
+                    after.merge(operation.productId(), operation.amountOrOne(), Integer::sum);
+                    addedProductIds.add(operation.productId());
+                }
+                case SET_QUANTITY -> after.put(getLineProductId(lines, after, operation.cartItemId()), operation.amount());
+                case REMOVE -> after.remove(getLineProductId(lines, after, operation.cartItemId()));
+            }
+        }
+
+        Set<Long> changedProductIds = new HashSet<>(after.keySet());
+        changedProductIds.addAll(before.keySet());
+        changedProductIds.removeIf(productId -> Objects.equals(before.get(productId), after.get(productId)));
+        changedProductIds.addAll(addedProductIds);
+
+        Map<Long, BigDecimal> prices = productRepository.findPricesByIdIn(changedProductIds)
+                .stream()
+                .collect(Collectors.toMap(ProductRepository.PriceView::getId, ProductRepository.PriceView::getPrice));
+        addedProductIds.stream()
+                .filter(productId -> !prices.containsKey(productId))
+                .findFirst()
+                .ifPresent(productId -> {
+                    throw new NotFoundException("Product with ID " + productId + " not found");
+                });
+
+        List<Long> removedLineIds = new ArrayList<>();
+        for (Cart line : lines.values()) {
+            Integer quantity = after.get(line.getProductId());
+            if (quantity == null) {
+                removedLineIds.add(line.getId());
+            } else if (quantity != line.getQuantity()) {
+                line.setQuantity(quantity);
+            }
+        }
+        if (!removedLineIds.isEmpty()) {
+            userCartRepository.deleteAllByIdInBatch(removedLineIds);
+        }
+
+        Map<Long, Integer> newLines = new HashMap<>(after);
+        newLines.keySet().removeAll(before.keySet());
+        if (!newLines.isEmpty()) {
+            userCartRepository.addQuantities(userId, newLines);
+        }
+
+        BigDecimal delta = changedProductIds.stream()
+                .map(productId -> prices.getOrDefault(productId, BigDecimal.ZERO).multiply(BigDecimal.valueOf(
+                        after.getOrDefault(productId, 0) - before.getOrDefault(productId, 0))))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        cartTotalService.apply(userId, delta);
+
+        return getCartByUserId(userId);
+    }
+
+    //the line must still be in the cart at this point of the batch
+    private long getLineProductId(Map<Long, Cart> lines, Map<Long, Integer> after, long cartItemId) {
+        Cart line = lines.get(cartItemId);
+        if (line == null || !after.containsKey(line.getProductId())) {
+            throw createNotFoundException(cartItemId);
+        }
+        return line.getProductId();
+    }
+
+    //a deleted product no longer counts towards the total
+    private BigDecimal getLinePrice(long productId, int quantity) {
+        return productRepository.findPriceById(productId)
+                .map(price -> price.multiply(BigDecimal.valueOf(quantity)))
+                .orElse(BigDecimal.ZERO);
+    }
+
     private NotFoundException createNotFoundException(long id) {
         return new NotFoundException(String.format("Item cart with ID %d not found in your cart", id));
     }
@@ -0,0 +1,13 @@
+package com.dev.e_shop.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CartBatchRequest(
+        @NotEmpty(message = "Operations cannot be empty")
+        @Size(max = 200, message = "At most 200 operations per batch")
+        List<@Valid CartOperation> operations
+) { }
@@ -0,0 +1,41 @@
+package com.dev.e_shop.cart.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record CartOperation(
+        @NotNull(message = "type is required")
+        Type type,
+
+        Long productId,
+
+        Long cartItemId,
+
+        @Min(value = 1, message = "Amount must be greater than 0")
+        Integer amount
+) {
+    public enum Type {
+        ADD,
+        SET_QUANTITY,
+        REMOVE
+    }
+
+    //an add without an amount adds one, like POST /me
+    public int amountOrOne() {
+        return amount != null ? amount : 1;
+    }
+
+    @AssertTrue(message = "ADD needs productId, SET_QUANTITY needs cartItemId and amount, REMOVE needs cartItemId")
+    public boolean isComplete() {
+        if (type == null) {
+            return true;
+        }
+
+        return switch (type) {
+            case ADD -> productId != null;
+            case SET_QUANTITY -> cartItemId != null && amount != null;
+            case REMOVE -> cartItemId != null;
+        };
+    }
+}
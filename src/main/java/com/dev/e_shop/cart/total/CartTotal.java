@@ -0,0 +1,22 @@
+package com.dev.e_shop.cart.total;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "cart_totals")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class CartTotal {
+    @Id
+    @Column(name = "user_id")
+    private long userId;
+
+    @Column(name = "total_price", nullable = false)
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,39 @@
+package com.dev.e_shop.cart.total;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+public interface CartTotalRepository extends JpaRepository<CartTotal, Long>, CartTotalUpsertRepository {
+
+    @Modifying
+    @Query("UPDATE CartTotal t SET t.totalPrice = t.totalPrice + :delta WHERE t.userId = :userId")
+    int addToTotal(@Param("userId") long userId, @Param("delta") BigDecimal delta);
+
+    //one statement for every cart holding the product, through the product index on carts
+    @Modifying
+    @Query("""
+            UPDATE CartTotal t
+            SET t.totalPrice = t.totalPrice + :priceDelta * (
+                SELECT SUM(c.quantity) FROM Cart c WHERE c.userId = t.userId AND c.productId = :productId)
+            WHERE t.userId IN (SELECT c.userId FROM Cart c WHERE c.productId = :productId)
+            """)
+    int reprice(@Param("productId") long productId, @Param("priceDelta") BigDecimal priceDelta);
+
+    @Modifying
+    @Query("""
+            UPDATE CartTotal t
+            SET t.totalPrice = COALESCE((
+                SELECT SUM(p.price * c.quantity) FROM Cart c JOIN Product p ON c.productId = p.id
+                WHERE c.userId = t.userId), 0)
+            WHERE t.userId = :userId
+            """)
+    int recompute(@Param("userId") long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartTotal t WHERE t.userId = :userId")
+    int clear(@Param("userId") long userId);
+}
@@ -0,0 +1,101 @@
+package com.dev.e_shop.cart.total;
+
+import com.dev.e_shop.cart.UserCartRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+//cart totals in cart_totals, missing rows are computed on the next write
+@Service
+public class CartTotalService {
+    private static final String CART_CACHE = "cart";
+
+    private final CartTotalRepository cartTotalRepository;
+    private final UserCartRepository userCartRepository;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public CartTotalService(CartTotalRepository cartTotalRepository,
+                            UserCartRepository userCartRepository,
+                            ObjectProvider<CacheManager> cacheManager) {
+        this.cartTotalRepository = cartTotalRepository;
+        this.userCartRepository = userCartRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    public BigDecimal getTotal(long userId) {
+        return cartTotalRepository.findById(userId)
+                .map(CartTotal::getTotalPrice)
+                .orElseGet(() -> sum(userId));
+    }
+
+    //runs after the cart rows are written, a computed row already includes the change
+    @Transactional(rollbackFor = Exception.class)
+    public void apply(long userId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+
+        if (cartTotalRepository.addToTotal(userId, delta) == 0) {
+            cartTotalRepository.addOrInsert(userId, delta, sum(userId));
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void reprice(long productId, BigDecimal priceDelta) {
+        if (priceDelta.signum() == 0) {
+            return;
+        }
+
+        List<Long> userIds = userCartRepository.findUserIdsByProductId(productId);
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        cartTotalRepository.reprice(productId, priceDelta);
+        //no CacheManager bean when caching is off (spring.cache.type other than redis)
+        afterCommit(() -> cacheManager.ifAvailable(manager -> {
+            Cache cache = manager.getCache(CART_CACHE);
+            if (cache != null) {
+                userIds.forEach(cache::evict);
+            }
+        }));
+    }
+
+    //for writes that remove many lines at once, such as a checkout; a missing row stays missing
+    @Transactional(rollbackFor = Exception.class)
+    public void recompute(long userId) {
+        cartTotalRepository.recompute(userId);
+    }
+
+    //the cart was rewritten outside of the deltas, the next write recomputes it
+    @Transactional(rollbackFor = Exception.class)
+    public void reset(long userId) {
+        cartTotalRepository.clear(userId);
+    }
+
+    private BigDecimal sum(long userId) {
+        BigDecimal total = userCartRepository.calculateTotalPriceByUserId(userId);
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package com.dev.e_shop.cart.total;
+
+import java.math.BigDecimal;
+
+public interface CartTotalUpsertRepository {
+    //adds delta to the user's row, or creates the row with total when there is none yet
+    void addOrInsert(long userId, BigDecimal delta, BigDecimal total);
+}
@@ -0,0 +1,32 @@
+package com.dev.e_shop.cart.total;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+class CartTotalUpsertRepositoryImpl implements CartTotalUpsertRepository {
+    private static final String MERGE_SQL = """
+            MERGE INTO cart_totals t
+            USING (SELECT CAST(? AS BIGINT) AS user_id) s
+            ON t.user_id = s.user_id
+            WHEN MATCHED THEN UPDATE SET total_price = t.total_price + ?
+            WHEN NOT MATCHED THEN INSERT (user_id, total_price) VALUES (s.user_id, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CartTotalUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addOrInsert(long userId, BigDecimal delta, BigDecimal total) {
+        try {
+            jdbcTemplate.update(MERGE_SQL, userId, delta, total);
+        } catch (DuplicateKeyException ex) {
+            //a concurrent first write inserted the row, it now matches and only the delta is added
+            jdbcTemplate.update(MERGE_SQL, userId, delta, total);
+        }
+    }
+}
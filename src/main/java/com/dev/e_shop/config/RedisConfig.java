@@ -1,26 +1,44 @@
 package com.dev.e_shop.config;
 
+import com.dev.e_shop.config.cache.CacheInvalidationPublisher;
+import com.dev.e_shop.config.cache.CacheInvalidationSubscriber;
+import com.dev.e_shop.config.cache.CompactCacheSerializer;
+import com.dev.e_shop.config.cache.StampedeProtectedCacheManager;
+import com.dev.e_shop.config.cache.TwoLevelCacheManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.interceptor.CacheInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
 public class RedisConfig {
+    private static final Map<String, Duration> CACHE_TTLS = Map.of(
+            "product", Duration.ofMinutes(60),
+            "products", Duration.ofMinutes(60),
+            "cart", Duration.ofMinutes(30),
+            "carts", Duration.ofMinutes(30),
+            "user", Duration.ofMinutes(60)
+    );
 
     @Value("${spring.data.redis.password}")
     private String redisPassword;
@@ -31,6 +49,24 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
+    @Value("${cache.near.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+
+    @Value("${cache.near.expire-after-write:PT5M}")
+    private Duration nearCacheExpireAfterWrite;
+
+    @Value("${cache.near.invalidation-channel:cache:invalidation}")
+    private String invalidationChannel;
+
+    @Value("${cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${cache.serializer.binary-caches:product,products,cart,carts,user}")
+    private Set<String> binaryCaches;
+
+    @Value("${cache.serializer.compression-threshold:1024}")
+    private int compressionThreshold;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         LettuceConnectionFactory lettuceConnectionFactory = new LettuceConnectionFactory(redisHost, redisPort);
@@ -39,35 +75,75 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, invalidationChannel);
+    }
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(TwoLevelCacheManager twoLevelCacheManager) {
+        //no early refresh for carts, they are rewritten on every change
+        return new StampedeProtectedCacheManager(
+                twoLevelCacheManager,
+                CACHE_TTLS,
+                earlyRefreshBeta,
+                cacheRefreshExecutor(),
+                Set.of("cart"));
+    }
+
+    @Bean
+    public TwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                     CacheInvalidationPublisher cacheInvalidationPublisher) {
+        //product reads are served from the near cache, Redis stays the shared source
+        return new TwoLevelCacheManager(
+                redisCacheManager(redisConnectionFactory),
+                Set.of("product", "products"),
+                nearCacheMaximumSize,
+                nearCacheExpireAfterWrite,
+                cacheInvalidationPublisher);
+    }
+
+    @Bean
+    public CacheInvalidationSubscriber cacheInvalidationSubscriber(
+            RedisConnectionFactory redisConnectionFactory,
+            TwoLevelCacheManager twoLevelCacheManager,
+            CacheInvalidationPublisher cacheInvalidationPublisher) {
+        return new CacheInvalidationSubscriber(
+                redisConnectionFactory,
+                twoLevelCacheManager,
+                cacheInvalidationPublisher.getChannel(),
+                Duration.ofSeconds(30));
+    }
+
+    private ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("cache-refresh-");
+        //a refresh that cannot be queued is skipped, the entry is still valid
+        executor.setRejectedExecutionHandler((task, pool) -> { });
+        executor.initialize();
+        return executor;
+    }
+
+    private CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
+        RedisSerializer<Object> jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        RedisSerializer<Object> binarySerializer = new CompactCacheSerializer(jsonSerializer, compressionThreshold);
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(redisConnectionFactory);
+        CACHE_TTLS.forEach((name, ttl) -> builder.withCacheConfiguration(name, RedisCacheConfiguration
                 .defaultCacheConfig()
-                .serializeValuesWith(RedisSerializationContext
-                        .SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
-
-        //product config
-        RedisCacheConfiguration productCacheConfiguration = redisCacheConfiguration
-                .entryTtl(Duration.ofMinutes(60))
-                .disableCachingNullValues();
-
-        //cart config
-        RedisCacheConfiguration cartCacheConfiguration = redisCacheConfiguration
-                .entryTtl(Duration.ofMinutes(30))
-                .disableCachingNullValues();
-
-        //cart config
-        RedisCacheConfiguration profileCacheConfiguration = redisCacheConfiguration
-                .entryTtl(Duration.ofMinutes(60))
-                .disableCachingNullValues();
-
-        return RedisCacheManager
-                .builder(redisConnectionFactory)
-                .withCacheConfiguration("product", productCacheConfiguration)
-                .withCacheConfiguration("products", productCacheConfiguration)
-                .withCacheConfiguration("cart", cartCacheConfiguration)
-                .withCacheConfiguration("carts", cartCacheConfiguration)
-                .withCacheConfiguration("user", profileCacheConfiguration)
-                .build();
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(binaryCaches.contains(name) ? binarySerializer : jsonSerializer))
+                .entryTtl(ttl)
+                .disableCachingNullValues()));
+
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+
+        return redisCacheManager;
     }
 
     @Bean
@@ -75,9 +151,10 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        //reads binary cache values and JSON alike, writes JSON only for unknown types
+        template.setValueSerializer(new CompactCacheSerializer(compressionThreshold));
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(new CompactCacheSerializer(compressionThreshold));
         template.afterPropertiesSet();
         return template;
     }
@@ -0,0 +1,37 @@
+package com.dev.e_shop.config.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+//publishes L1 invalidations tagged with this node's id
+public class CacheInvalidationPublisher {
+    static final String EVICT = "E";
+    static final String CLEAR = "C";
+    static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        redisTemplate.convertAndSend(channel, String.join(SEPARATOR, EVICT, nodeId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        redisTemplate.convertAndSend(channel, String.join(SEPARATOR, CLEAR, nodeId, cacheName));
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
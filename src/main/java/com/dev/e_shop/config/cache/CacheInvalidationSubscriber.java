@@ -0,0 +1,58 @@
+package com.dev.e_shop.config.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//subscribes once the app is ready and keeps retrying while Redis is down
+public class CacheInvalidationSubscriber {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationSubscriber.class);
+
+    private final RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+    private final Duration retryDelay;
+
+    private volatile boolean stopped = false;
+
+    public CacheInvalidationSubscriber(RedisConnectionFactory redisConnectionFactory,
+                                       MessageListener listener,
+                                       String channel,
+                                       Duration retryDelay) {
+        this.retryDelay = retryDelay;
+
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener(listener, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        if (stopped) {
+            return;
+        }
+
+        try {
+            listenerContainer.start();
+        } catch (RuntimeException ex) {
+            log.warn("Cannot subscribe to cache invalidations, retrying in {}: {}", retryDelay, ex.getMessage());
+            CompletableFuture
+                    .delayedExecutor(retryDelay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(this::subscribe);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        stopped = true;
+        listenerContainer.destroy();
+    }
+}
@@ -0,0 +1,374 @@
+package com.dev.e_shop.config.cache;
+
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.dto.PaginationResponse;
+import com.dev.e_shop.product.dto.ProductPreviewResponse;
+import com.dev.e_shop.product.dto.ProductResponse;
+import com.dev.e_shop.user.profile.dto.ProfileResponse;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+//field-by-field binary records, deflated above the threshold, JSON for anything else
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xCB;
+    static final byte VERSION = 1;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte LIST = 6;
+    private static final byte SET = 7;
+    private static final byte MAP = 8;
+    private static final byte PRODUCT = 10;
+    private static final byte PRODUCT_PREVIEW = 11;
+    private static final byte PAGINATION = 12;
+    private static final byte CART = 13;
+    private static final byte CART_ITEM = 14;
+    private static final byte PROFILE = 15;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    public CompactCacheSerializer(int compressionThreshold) {
+        this(new GenericJackson2JsonRedisSerializer(), compressionThreshold);
+    }
+
+    public CompactCacheSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        byte[] payload;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            writeValue(new DataOutputStream(bytes), value);
+            payload = bytes.toByteArray();
+        } catch (UnsupportedTypeException ex) {
+            return fallback.serialize(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Cannot serialize cache value", ex);
+        }
+
+        boolean compress = payload.length > compressionThreshold;
+        byte[] body = compress ? deflate(payload) : payload;
+
+        byte[] result = new byte[body.length + 2];
+        result[0] = MAGIC;
+        result[1] = (byte) (VERSION << 1 | (compress ? DEFLATED : PLAIN));
+        System.arraycopy(body, 0, result, 2, body.length);
+
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+
+        if (bytes.length < 2 || bytes[1] >> 1 != VERSION) {
+            throw new SerializationException("Unsupported cache value format");
+        }
+
+        try {
+            byte[] payload = (bytes[1] & 1) == DEFLATED
+                    ? inflate(bytes, 2)
+                    : Arrays.copyOfRange(bytes, 2, bytes.length);
+
+            return readValue(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException | DataFormatException ex) {
+            throw new SerializationException("Cannot deserialize cache value", ex);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            writeVarLong(out, number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            writeVarLong(out, number);
+        } else if (value instanceof BigDecimal decimal) {
+            out.writeByte(DECIMAL);
+            writeDecimal(out, decimal);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof ProductResponse product) {
+            out.writeByte(PRODUCT);
+            writeVarLong(out, product.id());
+            writeNullableString(out, product.name());
+            writeDecimal(out, product.price());
+            writeNullableString(out, product.description());
+            writeVarLong(out, product.categoryId());
+            writeNullableString(out, product.brand());
+            writeNullableString(out, product.imgUrl());
+        } else if (value instanceof ProductPreviewResponse product) {
+            out.writeByte(PRODUCT_PREVIEW);
+            writeVarLong(out, product.id());
+            writeNullableString(out, product.name());
+            writeDecimal(out, product.price());
+        } else if (value instanceof PaginationResponse pagination) {
+            out.writeByte(PAGINATION);
+            writeVarLong(out, pagination.currentPage());
+            writeVarLong(out, pagination.totalPage());
+            writeVarLong(out, pagination.totalItems());
+            writeVarLong(out, pagination.pageSize());
+        } else if (value instanceof CartResponse cart) {
+            out.writeByte(CART);
+            writeValue(out, cart.carts());
+            writeDecimal(out, cart.totalPrice());
+        } else if (value instanceof CartDto item) {
+            out.writeByte(CART_ITEM);
+            writeVarLong(out, item.getId());
+            writeVarLong(out, item.getProductId());
+            writeVarLong(out, item.getQuantity());
+        } else if (value instanceof ProfileResponse profile) {
+            out.writeByte(PROFILE);
+            writeNullableString(out, profile.address());
+            writeNullableString(out, profile.phone());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            writeElements(out, list);
+        } else if (value instanceof Set<?> set) {
+            out.writeByte(SET);
+            writeElements(out, set);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new UnsupportedTypeException();
+                }
+                writeString(out, key);
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new UnsupportedTypeException();
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case LONG -> readVarLong(in);
+            case INTEGER -> (int) readVarLong(in);
+            case DECIMAL -> readDecimal(in);
+            case BOOLEAN -> in.readBoolean();
+            case PRODUCT -> new ProductResponse(
+                    readVarLong(in),
+                    readNullableString(in),
+                    readDecimal(in),
+                    readNullableString(in),
+                    readVarLong(in),
+                    readNullableString(in),
+                    readNullableString(in));
+            case PRODUCT_PREVIEW -> new ProductPreviewResponse(
+                    readVarLong(in),
+                    readNullableString(in),
+                    readDecimal(in));
+            case PAGINATION -> new PaginationResponse(
+                    (int) readVarLong(in),
+                    (int) readVarLong(in),
+                    readVarLong(in),
+                    (int) readVarLong(in));
+            case CART -> {
+                @SuppressWarnings("unchecked")
+                Set<CartDto> items = (Set<CartDto>) readValue(in);
+                yield new CartResponse(items, readDecimal(in));
+            }
+            case CART_ITEM -> new CartDto(readVarLong(in), readVarLong(in), (int) readVarLong(in));
+            case PROFILE -> new ProfileResponse(readNullableString(in), readNullableString(in));
+            case LIST -> readElements(in, new ArrayList<>());
+            case SET -> readElements(in, new LinkedHashSet<>());
+            case MAP -> {
+                int size = (int) readVarLong(in);
+                Map<String, Object> map = new HashMap<>(Math.max(4, size * 2));
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                yield map;
+            }
+            default -> throw new IOException("Unknown value type " + type);
+        };
+    }
+
+    private void writeElements(DataOutputStream out, Collection<?> elements) throws IOException {
+        writeVarLong(out, elements.size());
+        for (Object element : elements) {
+            writeValue(out, element);
+        }
+    }
+
+    private <C extends Collection<Object>> C readElements(DataInputStream in, C elements) throws IOException {
+        int size = (int) readVarLong(in);
+        for (int i = 0; i < size; i++) {
+            elements.add(readValue(in));
+        }
+
+        return elements;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal decimal) throws IOException {
+        if (decimal == null) {
+            out.writeBoolean(false);
+            return;
+        }
+
+        out.writeBoolean(true);
+        writeVarLong(out, decimal.scale());
+        byte[] unscaled = decimal.unscaledValue().toByteArray();
+        writeVarLong(out, unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        int scale = (int) readVarLong(in);
+        byte[] unscaled = new byte[(int) readVarLong(in)];
+        in.readFully(unscaled);
+
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //zigzag varint, small ids and counters take one or two bytes
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            DataOutputStream header = new DataOutputStream(out);
+            try {
+                writeVarLong(header, payload.length);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset) throws IOException, DataFormatException {
+        ByteArrayInputStream source = new ByteArrayInputStream(bytes, offset, bytes.length - offset);
+        int length = (int) readVarLong(new DataInputStream(source));
+        int headerLength = bytes.length - offset - source.available();
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset + headerLength, bytes.length - offset - headerLength);
+
+            byte[] payload = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(payload, read, length - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Truncated cache value");
+                }
+                read += inflated;
+            }
+
+            return payload;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class UnsupportedTypeException extends RuntimeException {
+        UnsupportedTypeException() {
+            super(null, null, false, false);
+        }
+    }
+}
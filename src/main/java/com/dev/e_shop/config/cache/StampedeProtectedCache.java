@@ -0,0 +1,173 @@
+package com.dev.e_shop.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+//one loader per key on a miss, probabilistic early refresh (XFetch) on a hit
+public class StampedeProtectedCache implements Cache {
+    private final Cache delegate;
+    private final Duration ttl;
+    private final double beta;
+    private final Executor refreshExecutor;
+    private final boolean earlyRefresh;
+
+    private final Map<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, LoadInfo> loads;
+    //bumped by put and evict, a load that saw another version must not write its value
+    private final com.github.benmanes.caffeine.cache.Cache<Object, AtomicLong> versions;
+
+    public StampedeProtectedCache(Cache delegate, Duration ttl, double beta, Executor refreshExecutor, boolean earlyRefresh) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+        this.earlyRefresh = earlyRefresh;
+        this.loads = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(100_000)
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            if (shouldRefreshEarly(key)) {
+                refreshExecutor.execute(() -> {
+                    try {
+                        load(key, valueLoader);
+                    } catch (RuntimeException ignored) {
+                        //the current value stays until its TTL, the next miss loads it again
+                    }
+                });
+            }
+
+            return (T) cached.get();
+        }
+
+        return (T) load(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        versionOf(key).incrementAndGet();
+        loads.invalidate(key);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        versionOf(key).incrementAndGet();
+        loads.invalidate(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        versions.asMap().values().forEach(AtomicLong::incrementAndGet);
+        loads.invalidateAll();
+        delegate.clear();
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> ownLoad = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightLoad = inFlightLoads.putIfAbsent(key, ownLoad);
+        if (inFlightLoad != null) {
+            return await(key, valueLoader, inFlightLoad);
+        }
+
+        AtomicLong version = versionOf(key);
+        long loadedVersion = version.get();
+        try {
+            long start = System.nanoTime();
+            Object value = valueLoader.call();
+            long took = System.nanoTime() - start;
+
+            if (value != null && isCurrent(key, version, loadedVersion)) {
+                delegate.put(key, value);
+                loads.put(key, new LoadInfo(System.nanoTime() + ttl.toNanos(), took));
+                //a put or evict that ran while writing may have been overwritten, drop the value then
+                if (!isCurrent(key, version, loadedVersion)) {
+                    loads.invalidate(key);
+                    delegate.evict(key);
+                }
+            }
+
+            ownLoad.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            ownLoad.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            inFlightLoads.remove(key, ownLoad);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlightLoad) {
+        try {
+            return inFlightLoad.get();
+        } catch (ExecutionException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    private AtomicLong versionOf(Object key) {
+        return versions.get(key, ignored -> new AtomicLong());
+    }
+
+    private boolean isCurrent(Object key, AtomicLong version, long loadedVersion) {
+        return versions.getIfPresent(key) == version && version.get() == loadedVersion;
+    }
+
+    private boolean shouldRefreshEarly(Object key) {
+        if (!earlyRefresh) {
+            return false;
+        }
+
+        LoadInfo info = loads.getIfPresent(key);
+        if (info == null || inFlightLoads.containsKey(key)) {
+            return false;
+        }
+
+        //-log(u) is exponentially distributed, so early refreshes spread out instead of piling up
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -info.took() * beta * Math.log(random);
+
+        return System.nanoTime() + gap >= info.expiresAt();
+    }
+
+    private record LoadInfo(long expiresAt, long took) { }
+}
@@ -0,0 +1,51 @@
+package com.dev.e_shop.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+//wraps the caches that have a TTL, others are returned as is
+public class StampedeProtectedCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final Map<String, Duration> ttls;
+    private final double beta;
+    private final Executor refreshExecutor;
+    private final Set<String> noEarlyRefresh;
+
+    private final Map<String, StampedeProtectedCache> caches = new ConcurrentHashMap<>();
+
+    public StampedeProtectedCacheManager(CacheManager delegate,
+                                         Map<String, Duration> ttls,
+                                         double beta,
+                                         Executor refreshExecutor,
+                                         Set<String> noEarlyRefresh) {
+        this.delegate = delegate;
+        this.ttls = ttls;
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+        this.noEarlyRefresh = noEarlyRefresh;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        if (cache == null || !ttls.containsKey(name)) {
+            return cache;
+        }
+
+        return caches.computeIfAbsent(name, cacheName ->
+                new StampedeProtectedCache(cache, ttls.get(cacheName), beta, refreshExecutor,
+                        !noEarlyRefresh.contains(cacheName)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,80 @@
+package com.dev.e_shop.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+//wraps the configured Redis caches with a bounded near cache
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+    private static final Pattern SEPARATOR = Pattern.compile(Pattern.quote(CacheInvalidationPublisher.SEPARATOR));
+
+    private final CacheManager remoteCacheManager;
+    private final Set<String> nearCacheNames;
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final Map<String, TwoLevelCache> nearCaches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                Set<String> nearCacheNames,
+                                long maximumSize,
+                                Duration expireAfterWrite,
+                                CacheInvalidationPublisher invalidationPublisher) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.nearCacheNames = nearCacheNames;
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null || !nearCacheNames.contains(name)) {
+            return remoteCache;
+        }
+
+        return nearCaches.computeIfAbsent(name, cacheName -> new TwoLevelCache(
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(expireAfterWrite)
+                        .build(),
+                remoteCache,
+                invalidationPublisher));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = SEPARATOR.split(new String(message.getBody(), StandardCharsets.UTF_8), 4);
+        if (parts.length < 3 || parts[1].equals(invalidationPublisher.getNodeId())) {
+            return;
+        }
+
+        TwoLevelCache cache = nearCaches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+
+        if (CacheInvalidationPublisher.CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        } else if (parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.dev.e_shop.dto.ErrorResponse;
 import com.dev.e_shop.dto.PaginationDto;
 import com.dev.e_shop.exception.custom.AppException;
 import com.dev.e_shop.exception.custom.InvalidHttpStatusException;
+import com.dev.e_shop.exception.custom.ServiceBusyException;
 import com.dev.e_shop.exception.status.ErrorStatus;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -52,6 +54,16 @@ public class GlobalExceptionHandler {
                         request.getRequestURI()));
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(ServiceBusyException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse<>(ex.getStatus(),
+                        ex.getMessage(),
+                        Collections.singleton(ex.getErrorDetail()),
+                        request.getRequestURI()));
+    }
+
     @ExceptionHandler(AppException.class)
     public ResponseEntity<ErrorResponse> handleAppException(AppException ex, HttpServletRequest request) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -0,0 +1,9 @@
+package com.dev.e_shop.exception.custom;
+
+import com.dev.e_shop.exception.status.ErrorStatus;
+
+public class InsufficientStockException extends AppException {
+    public InsufficientStockException(String errorDetail) {
+        super(errorDetail, 409, ErrorStatus.INSUFFICIENT_STOCK);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dev.e_shop.exception.custom;
+
+import com.dev.e_shop.exception.status.ErrorStatus;
+
+public class InvalidCursorException extends AppException {
+    public InvalidCursorException(String errorDetail) {
+        super(errorDetail, 400, ErrorStatus.INVALID_REQUEST_PARAM);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dev.e_shop.exception.custom;
+
+import com.dev.e_shop.exception.status.ErrorStatus;
+
+public class ServiceBusyException extends AppException {
+    public ServiceBusyException(String errorDetail) {
+        super(errorDetail, 503, ErrorStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -13,6 +13,8 @@ public final class ErrorStatus {
     public static final String CART_ITEM_NOT_FOUND = "Bad Request";
     public static final String INTERNAL_SERVER = "Internal server error";
     public static final String INVALID_REQUEST_PARAM = "Invalid request parameters";
+    public static final String INSUFFICIENT_STOCK = "Insufficient stock";
+    public static final String SERVICE_UNAVAILABLE = "Service temporarily unavailable";
 
     private ErrorStatus(){}
 }
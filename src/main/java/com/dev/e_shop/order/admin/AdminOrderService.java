@@ -6,8 +6,13 @@ import com.dev.e_shop.order.Order;
 import com.dev.e_shop.order.OrderRepository;
 import com.dev.e_shop.order.dto.OrderResponse;
 import com.dev.e_shop.order.dto.UpdatedOrderRequest;
+import com.dev.e_shop.order.event.OrderStatusChangedEvent;
+import com.dev.e_shop.order.item.OrderItem;
+import com.dev.e_shop.order.item.OrderItemRepository;
 import com.dev.e_shop.order.mapper.OrderMapper;
+import com.dev.e_shop.order.reservation.StockReservationService;
 import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,11 +29,17 @@ public class AdminOrderService {
     private final String PAGINATION_KEY = "pagination";
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final OrderMapper orderMapper;
+    private final StockReservationService stockReservationService;
+    private final OutboxPublisher outboxPublisher;
 
-    public AdminOrderService(OrderRepository orderRepository, OrderMapper orderMapper) {
+    public AdminOrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository, OrderMapper orderMapper, StockReservationService stockReservationService, OutboxPublisher outboxPublisher) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.orderMapper = orderMapper;
+        this.stockReservationService = stockReservationService;
+        this.outboxPublisher = outboxPublisher;
     }
 
     public Map<String, Object> getAllOrderByStatus(int page, int size, OrderStatus status) {
@@ -42,14 +53,45 @@ public class AdminOrderService {
     public OrderResponse updateOrderState(UpdatedOrderRequest payload) {
         return orderRepository.findById(payload.orderId())
                 .map(order -> {
+                    OrderStatus previousStatus = order.getStatus();
                     order.setStatus(payload.status());
                     Order savedOrder = this.orderRepository.save(order);
 
+                    if (previousStatus != payload.status()) {
+                        //a cancelled order gave its stock back, take it again before reopening it
+                        if (previousStatus == OrderStatus.CANCELLED) {
+                            stockReservationService.reserve(order.getId(), getQuantityByProduct(order.getId()));
+                        }
+
+                        switch (payload.status()) {
+                            case CANCELLED -> {
+                                //paid or shipped orders have no reservation left, their items say what to return
+                                if (previousStatus == OrderStatus.PAID || previousStatus == OrderStatus.SHIPPED) {
+                                    stockReservationService.restore(getQuantityByProduct(order.getId()));
+                                } else {
+                                    stockReservationService.release(order.getId());
+                                }
+                            }
+                            //paid or shipped orders keep their stock and are no longer expired
+                            case PAID, SHIPPED -> stockReservationService.confirm(order.getId());
+                            default -> { }
+                        }
+
+                        outboxPublisher.record(OrderStatusChangedEvent.AGGREGATE_TYPE, order.getId(), OrderStatusChangedEvent.TYPE,
+                                new OrderStatusChangedEvent(order.getId(), previousStatus, payload.status()));
+                    }
+
                     return this.orderMapper.toOrderResponse(savedOrder);
                 })
                 .orElseThrow(() -> new NotFoundException("Order not found"));
     }
 
+    private Map<Long, Integer> getQuantityByProduct(long orderId) {
+        return orderItemRepository.findAllByOrderId(orderId)
+                .stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum));
+    }
+
     private Map<String, Object> createDataByPagination(Page<Order> orderPage) {
         Map<String, Object> data = new HashMap<>();
         data.put(ORDER_KEY, orderPage.getContent()
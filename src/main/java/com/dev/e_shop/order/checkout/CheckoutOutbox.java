@@ -0,0 +1,44 @@
+package com.dev.e_shop.order.checkout;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+//queued checkout, deleted when CheckoutWorker finishes the order
+@Entity
+@Table(name = "checkout_outbox", indexes = {
+        @Index(name = "idx_checkout_outbox_order_id", columnList = "order_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class CheckoutOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checkout_outbox_seq")
+    @SequenceGenerator(name = "checkout_outbox_seq", sequenceName = "checkout_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private long orderId;
+
+    @Column(nullable = false)
+    private long userId;
+
+    //the submitted cart lines as JSON
+    @Lob
+    @Column(nullable = false)
+    private String items;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    //failed runs that were left for a retry
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,26 @@
+package com.dev.e_shop.order.checkout;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CheckoutOutboxRepository extends JpaRepository<CheckoutOutbox, Long> {
+
+    @Query("SELECT c.id FROM CheckoutOutbox c ORDER BY c.id")
+    List<Long> findQueuedIds(Limit limit);
+
+    //the worker whose delete removes the row owns the entry, concurrent ones get 0
+    @Modifying
+    @Query("DELETE FROM CheckoutOutbox c WHERE c.id = :id")
+    int claim(@Param("id") long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CheckoutOutbox c SET c.attempts = c.attempts + 1, c.lastError = :error WHERE c.id = :id")
+    int recordFailure(@Param("id") long id, @Param("error") String error);
+
+    boolean existsByOrderId(long orderId);
+}
@@ -0,0 +1,95 @@
+package com.dev.e_shop.order.checkout;
+
+import com.dev.e_shop.exception.custom.AppException;
+import com.dev.e_shop.order.user.UserOrderService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//finishes queued checkouts on a fixed pool, one transaction per order
+@Component
+public class CheckoutWorker {
+    private static final Logger log = LoggerFactory.getLogger(CheckoutWorker.class);
+
+    private final UserOrderService userOrderService;
+    private final CheckoutOutboxRepository checkoutOutboxRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final ExecutorService executor;
+
+    public CheckoutWorker(UserOrderService userOrderService,
+                          CheckoutOutboxRepository checkoutOutboxRepository,
+                          @Value("${order.checkout.async:false}") boolean enabled,
+                          @Value("${order.checkout.batch-size:50}") int batchSize,
+                          @Value("${order.checkout.worker-threads:4}") int threads,
+                          @Value("${order.checkout.max-attempts:5}") int maxAttempts) {
+        this.userOrderService = userOrderService;
+        this.checkoutOutboxRepository = checkoutOutboxRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("checkout-worker-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    @Scheduled(fixedDelayString = "${order.checkout.poll-interval:PT0.1S}")
+    public int drain() {
+        if (!enabled) {
+            return 0;
+        }
+
+        List<Long> entryIds = checkoutOutboxRepository.findQueuedIds(Limit.of(batchSize));
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<Void>> tasks = entryIds.stream()
+                .<Callable<Void>>map(entryId -> () -> {
+                    complete(entryId);
+                    return null;
+                })
+                .toList();
+
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return entryIds.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void complete(long entryId) {
+        try {
+            userOrderService.completeQueued(entryId);
+        } catch (AppException ex) {
+            log.info("Cancelling queued checkout {}: {}", entryId, ex.getErrorDetail());
+            userOrderService.rejectQueued(entryId);
+        } catch (RuntimeException ex) {
+            log.warn("Queued checkout {} failed", entryId, ex);
+            try {
+                userOrderService.failQueued(entryId, String.valueOf(ex), maxAttempts);
+            } catch (RuntimeException failure) {
+                log.warn("Could not record the failure of queued checkout {}", entryId, failure);
+            }
+        }
+    }
+}
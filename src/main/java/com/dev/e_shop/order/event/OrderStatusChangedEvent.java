@@ -0,0 +1,8 @@
+package com.dev.e_shop.order.event;
+
+import com.dev.e_shop.order.status.OrderStatus;
+
+public record OrderStatusChangedEvent(long orderId, OrderStatus previousStatus, OrderStatus status) {
+    public static final String AGGREGATE_TYPE = "order";
+    public static final String TYPE = "OrderStatusChanged";
+}
@@ -0,0 +1,8 @@
+package com.dev.e_shop.order.item;
+
+import java.util.List;
+
+public interface OrderItemBatchRepository {
+    //one JDBC batch, generated ids are not read back
+    void insertAll(List<OrderItem> items);
+}
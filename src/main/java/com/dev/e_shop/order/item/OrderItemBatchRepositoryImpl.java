@@ -0,0 +1,41 @@
+package com.dev.e_shop.order.item;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO order_items (order_id, product_id, product_name, price, quantity)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    OrderItemBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<OrderItem> items) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderItem item = items.get(i);
+                ps.setLong(1, item.getOrderId());
+                ps.setLong(2, item.getProductId());
+                ps.setString(3, item.getProductName());
+                ps.setBigDecimal(4, item.getPrice());
+                ps.setInt(5, item.getQuantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.dev.e_shop.order.reservation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//cancels pending orders past their reservation, one transaction each
+@Component
+public class ReservationExpiryScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    private final StockReservationService stockReservationService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ReservationExpiryScheduler(StockReservationService stockReservationService,
+                                      @Value("${order.reservation.sweep.enabled:true}") boolean enabled,
+                                      @Value("${order.reservation.sweep.batch-size:100}") int batchSize) {
+        this.stockReservationService = stockReservationService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${order.reservation.sweep.interval:PT1M}",
+            fixedDelayString = "${order.reservation.sweep.interval:PT1M}")
+    public void releaseExpired() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> orderIds = stockReservationService.findExpiredOrderIds(batchSize);
+
+        for (Long orderId : orderIds) {
+            try {
+                stockReservationService.expire(orderId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to release expired reservation of order {}", orderId, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.dev.e_shop.order.reservation;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findAllByOrderId(long orderId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.orderId = :orderId")
+    int deleteAllByOrderId(@Param("orderId") long orderId);
+
+    @Query("SELECT DISTINCT r.orderId FROM StockReservation r WHERE r.expiresAt < :now")
+    List<Long> findExpiredOrderIds(@Param("now") Instant now, Limit limit);
+}
@@ -0,0 +1,200 @@
+package com.dev.e_shop.order.reservation;
+
+import com.dev.e_shop.exception.custom.InsufficientStockException;
+import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.event.OrderStatusChangedEvent;
+import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.outbox.OutboxPublisher;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import com.dev.e_shop.product.stock.HotStockCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+//conditional decrements in ascending id order, hot products go through HotStockCounter
+@Service
+public class StockReservationService {
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final Clock clock;
+    private final HotStockCounter hotStockCounter;
+    private final OutboxPublisher outboxPublisher;
+    private final Duration ttl;
+
+    public StockReservationService(StockReservationRepository stockReservationRepository,
+                                   ProductRepository productRepository,
+                                   OrderRepository orderRepository,
+                                   HotStockCounter hotStockCounter,
+                                   OutboxPublisher outboxPublisher,
+                                   Clock clock,
+                                   @Value("${order.reservation.ttl:PT30M}") Duration ttl) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.hotStockCounter = hotStockCounter;
+        this.outboxPublisher = outboxPublisher;
+        this.clock = clock;
+        this.ttl = ttl;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void reserve(long orderId, Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> cold = new TreeMap<>();
+        SortedMap<Long, Integer> hot = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (hotStockCounter.isHot(productId) ? hot : cold).put(productId, quantity));
+
+        List<StockAdjustmentRequest> adjustments = cold.entrySet()
+                .stream()
+                .map(entry -> new StockAdjustmentRequest(entry.getKey(), -entry.getValue()))
+                .toList();
+
+        int[] updated = adjustments.isEmpty() ? new int[0] : productRepository.adjustStocks(adjustments);
+
+        List<Long> unavailable = new ArrayList<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (updated[i] == 0) {
+                unavailable.add(adjustments.get(i).productId());
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            throw new InsufficientStockException("Not enough stock for products " + unavailable);
+        }
+
+        if (!hot.isEmpty()) {
+            hotStockCounter.reserve(hot).ifPresent(productId -> {
+                throw new InsufficientStockException("Not enough stock for products " + List.of(productId));
+            });
+            //the counters are outside the transaction, give the stock back if it rolls back
+            onRollback(() -> hotStockCounter.release(hot));
+        }
+
+        Instant expiresAt = clock.instant().plus(ttl);
+        List<StockReservation> reservations = new ArrayList<>();
+        cold.forEach((productId, quantity) -> reservations.add(reservation(orderId, productId, quantity, expiresAt, false)));
+        hot.forEach((productId, quantity) -> reservations.add(reservation(orderId, productId, quantity, expiresAt, true)));
+
+        stockReservationRepository.saveAll(reservations);
+    }
+
+    //idempotent, only the caller that deletes the reservations restores stock
+    @Transactional(rollbackFor = Exception.class)
+    public void release(long orderId) {
+        List<StockReservation> reservations = stockReservationRepository.findAllByOrderId(orderId);
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        if (stockReservationRepository.deleteAllByOrderId(orderId) != reservations.size()) {
+            return;
+        }
+
+        List<StockAdjustmentRequest> cold = reservations.stream()
+                .filter(reservation -> !reservation.isHot())
+                .sorted(Comparator.comparingLong(StockReservation::getProductId))
+                .map(reservation -> new StockAdjustmentRequest(reservation.getProductId(), reservation.getQuantity()))
+                .toList();
+        if (!cold.isEmpty()) {
+            productRepository.adjustStocks(cold);
+        }
+
+        SortedMap<Long, Integer> hot = new TreeMap<>();
+        reservations.stream()
+                .filter(StockReservation::isHot)
+                .forEach(reservation -> hot.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum));
+        if (!hot.isEmpty()) {
+            afterCommit(() -> hotStockCounter.release(hot));
+        }
+    }
+
+    //the order went ahead, the stock stays taken
+    @Transactional(rollbackFor = Exception.class)
+    public void confirm(long orderId) {
+        stockReservationRepository.deleteAllByOrderId(orderId);
+    }
+
+    //gives back the stock of a confirmed order, whose reservations are already gone
+    @Transactional(rollbackFor = Exception.class)
+    public void restore(Map<Long, Integer> quantities) {
+        List<StockAdjustmentRequest> adjustments = new TreeMap<>(quantities).entrySet()
+                .stream()
+                .map(entry -> new StockAdjustmentRequest(entry.getKey(), entry.getValue()))
+                .toList();
+        if (!adjustments.isEmpty()) {
+            productRepository.adjustStocks(adjustments);
+        }
+        quantities.forEach(hotStockCounter::restock);
+    }
+
+    public List<Long> findExpiredOrderIds(int limit) {
+        return stockReservationRepository.findExpiredOrderIds(clock.instant(), Limit.of(limit));
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void expire(long orderId) {
+        orderRepository.findById(orderId)
+                .ifPresentOrElse(order -> {
+                    switch (order.getStatus()) {
+                        case PENDING -> {
+                            order.setStatus(OrderStatus.CANCELLED);
+                            orderRepository.save(order);
+                            release(orderId);
+                            outboxPublisher.record(OrderStatusChangedEvent.AGGREGATE_TYPE, orderId, OrderStatusChangedEvent.TYPE,
+                                    new OrderStatusChangedEvent(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED));
+                        }
+                        //a cancelled order never keeps its stock
+                        case CANCELLED -> release(orderId);
+                        default -> confirm(orderId);
+                    }
+                }, () -> confirm(orderId));
+    }
+
+    private StockReservation reservation(long orderId, long productId, int quantity, Instant expiresAt, boolean hot) {
+        return StockReservation.builder()
+                .orderId(orderId)
+                .productId(productId)
+                .quantity(quantity)
+                .expiresAt(expiresAt)
+                .hot(hot)
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
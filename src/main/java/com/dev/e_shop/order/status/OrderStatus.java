@@ -1,5 +1,5 @@
 package com.dev.e_shop.order.status;
 
 public enum OrderStatus {
-    PENDING, SHIPPED, CANCELLED;
+    PENDING, PAID, SHIPPED, CANCELLED;
 }
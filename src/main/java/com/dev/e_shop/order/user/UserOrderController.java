@@ -6,6 +6,7 @@ import com.dev.e_shop.order.dto.OrderRequest;
 import com.dev.e_shop.order.dto.OrderResponse;
 import com.dev.e_shop.user.UserDetail;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -17,9 +18,12 @@ import java.util.Map;
 public class UserOrderController {
 
     private final UserOrderService orderService;
+    private final boolean asyncCheckout;
 
-    public UserOrderController(UserOrderService orderService) {
+    public UserOrderController(UserOrderService orderService,
+                               @Value("${order.checkout.async:false}") boolean asyncCheckout) {
         this.orderService = orderService;
+        this.asyncCheckout = asyncCheckout;
     }
 
     @GetMapping("/")
@@ -39,10 +43,12 @@ public class UserOrderController {
 
     @GetMapping("/{orderId}")
     public ResponseEntity<ApiResponse< Map<String, Object>>> getOrderDetail(
+            @AuthenticationPrincipal UserDetail userDetail,
             @PathVariable long orderId,
             @Valid PaginationDto paginationDto
     ) {
         Map<String, Object> response = orderService.getOrderDetail(
+                userDetail,
                 orderId,
                 paginationDto.getPageInt(),
                 paginationDto.getSizeInt());
@@ -60,6 +66,17 @@ public class UserOrderController {
             @AuthenticationPrincipal UserDetail userDetail,
             @Valid @RequestBody OrderRequest body
     ) {
+        if (asyncCheckout) {
+            OrderResponse response = orderService.enqueue(userDetail, body);
+
+            return ResponseEntity.status(202)
+                    .body(new ApiResponse<>(
+                            202,
+                            "Order accepted, poll the order for its items",
+                            response
+                    ));
+        }
+
         OrderResponse response = orderService.create(userDetail, body);
 
         return ResponseEntity.status(201)
@@ -1,20 +1,34 @@
 package com.dev.e_shop.order.user;
 
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.RedisCartStore;
 import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.total.CartTotalService;
 import com.dev.e_shop.dto.PaginationResponse;
 import com.dev.e_shop.exception.custom.CartItemNotFoundException;
 import com.dev.e_shop.exception.custom.NotFoundException;
 import com.dev.e_shop.order.Order;
 import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.checkout.CheckoutOutbox;
+import com.dev.e_shop.order.checkout.CheckoutOutboxRepository;
+import com.dev.e_shop.order.checkout.CheckoutWorker;
 import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.order.event.OrderStatusChangedEvent;
 import com.dev.e_shop.order.dto.OrderResponse;
 import com.dev.e_shop.order.item.OrderItem;
 import com.dev.e_shop.order.item.OrderItemRepository;
 import com.dev.e_shop.order.item.OrderItemService;
 import com.dev.e_shop.order.mapper.OrderMapper;
+import com.dev.e_shop.order.reservation.StockReservationService;
+import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.user.UserDetail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,32 +36,52 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserOrderService {
     private final String ORDER_KEY = "orders";
     private final String PAGINATION_KEY = "pagination";
+    private final String ORDER_DETAIL_KEY = "order";
+    private final String PROCESSING_KEY = "processing";
 
     private final OrderItemService orderItemService;
+    private final StockReservationService stockReservationService;
 
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserCartRepository userCartRepository;
     private final ProductRepository productRepository;
+    private final RedisCartStore redisCartStore;
+    private final CartTotalService cartTotalService;
+
+    private final CheckoutOutboxRepository checkoutOutboxRepository;
+    private final OutboxPublisher outboxPublisher;
 
     private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
 
-    public UserOrderService(OrderItemService orderItemService, OrderRepository orderRepository, OrderItemRepository orderItemRepository, UserCartRepository userCartRepository, ProductRepository productRepository, OrderMapper orderMapper) {
+    public UserOrderService(OrderItemService orderItemService, StockReservationService stockReservationService, OrderRepository orderRepository, OrderItemRepository orderItemRepository, UserCartRepository userCartRepository, ProductRepository productRepository, RedisCartStore redisCartStore, CartTotalService cartTotalService, CheckoutOutboxRepository checkoutOutboxRepository, OutboxPublisher outboxPublisher, OrderMapper orderMapper, ObjectMapper objectMapper, Clock clock) {
         this.orderItemService = orderItemService;
+        this.stockReservationService = stockReservationService;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.userCartRepository = userCartRepository;
         this.productRepository = productRepository;
+        this.redisCartStore = redisCartStore;
+        this.cartTotalService = cartTotalService;
+        this.checkoutOutboxRepository = checkoutOutboxRepository;
+        this.outboxPublisher = outboxPublisher;
         this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
     }
 
     public Map<String, Object> getOrderByPagination(UserDetail userDetail, int page, int size) {
@@ -57,66 +91,194 @@ public class UserOrderService {
         return createDataByPagination(orderPage);
     }
 
+    //reads the products once: the items and the total come from the same rows
     @Transactional(rollbackFor = Exception.class)
     public OrderResponse create(UserDetail userDetail, OrderRequest body) {
-        Order savedOrder = createOrder(userDetail.getId());
-        createOrderItem(body, savedOrder.getId(), userDetail.getId());
-        
+        body = loadCartLines(toCartRows(userDetail.getId(), body), userDetail.getId());
+
+        List<OrderItem> orderItems = createOrderItems(body);
+        Order savedOrder = createOrder(userDetail.getId(), getTotalPrice(orderItems));
+        placeOrderItems(savedOrder, userDetail.getId(), orderItems, body);
+
         return orderMapper.toOrderResponse(savedOrder);
     }
 
+    //saves a PENDING order and queues it, CheckoutWorker fills it in
+    @Transactional(rollbackFor = Exception.class)
+    public OrderResponse enqueue(UserDetail userDetail, OrderRequest body) {
+        body = loadCartLines(toCartRows(userDetail.getId(), body), userDetail.getId());
+
+        Order savedOrder = createOrder(userDetail.getId(), BigDecimal.ZERO);
+        checkoutOutboxRepository.save(CheckoutOutbox.builder()
+                .orderId(savedOrder.getId())
+                .userId(userDetail.getId())
+                .items(writeItems(body.orderItems()))
+                .createdAt(clock.instant())
+                .build());
+
+        return orderMapper.toOrderResponse(savedOrder);
+    }
+
+    //does nothing when another worker already took the entry
+    @Transactional(rollbackFor = Exception.class)
+    public void completeQueued(long entryId) {
+        CheckoutOutbox entry = checkoutOutboxRepository.findById(entryId).orElse(null);
+        if (entry == null || checkoutOutboxRepository.claim(entryId) == 0) {
+            return;
+        }
+
+        Order order = orderRepository.findById(entry.getOrderId())
+                .orElseThrow(() -> new NotFoundException("Order not found"));
+        //cancelled while queued: the cart stays and no stock is taken
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return;
+        }
 
-    public Map<String, Object> getOrderDetail(long orderId, int page, int size) {
-        return orderItemService.getItemsByOrderId(orderId, page, size);
+        //the cart may have been checked out or changed since the order was accepted
+        OrderRequest body = loadCartLines(new OrderRequest(readItems(entry.getItems())), entry.getUserId());
+        List<OrderItem> orderItems = createOrderItems(body);
+        order.setTotalAmount(getTotalPrice(orderItems));
+        placeOrderItems(orderRepository.save(order), entry.getUserId(), orderItems, body);
     }
 
-    private Order createOrder(long userId) {
+    //the queued order cannot be placed, nothing of it was written
+    @Transactional(rollbackFor = Exception.class)
+    public void rejectQueued(long entryId) {
+        checkoutOutboxRepository.findById(entryId)
+                .filter(entry -> checkoutOutboxRepository.claim(entryId) == 1)
+                .flatMap(entry -> orderRepository.findById(entry.getOrderId()))
+                .ifPresent(order -> {
+                    OrderStatus previousStatus = order.getStatus();
+                    order.setStatus(OrderStatus.CANCELLED);
+                    orderRepository.save(order);
+                    outboxPublisher.record(OrderStatusChangedEvent.AGGREGATE_TYPE, order.getId(), OrderStatusChangedEvent.TYPE,
+                            new OrderStatusChangedEvent(order.getId(), previousStatus, OrderStatus.CANCELLED));
+                });
+    }
+
+    //keeps the entry for another run until it has failed maxAttempts times, then cancels the order
+    @Transactional(rollbackFor = Exception.class)
+    public void failQueued(long entryId, String error, int maxAttempts) {
+        checkoutOutboxRepository.recordFailure(entryId, error.length() > 500 ? error.substring(0, 500) : error);
+        checkoutOutboxRepository.findById(entryId)
+                .filter(entry -> entry.getAttempts() >= maxAttempts)
+                .ifPresent(entry -> rejectQueued(entryId));
+    }
+
+    //an order still queued by the asynchronous checkout has no items yet, only its state is returned
+    public Map<String, Object> getOrderDetail(UserDetail userDetail, long orderId, int page, int size) {
+        Order order = orderRepository.findById(orderId)
+                .filter(found -> found.getUserId() == userDetail.getId())
+                .orElseThrow(() -> new NotFoundException("Order not found"));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put(ORDER_DETAIL_KEY, orderMapper.toOrderResponse(order));
+
+        if (checkoutOutboxRepository.existsByOrderId(orderId)) {
+            data.put(PROCESSING_KEY, true);
+            return data;
+        }
+
+        data.putAll(orderItemService.getItemsByOrderId(orderId, page, size));
+        data.put(PROCESSING_KEY, false);
+
+        return data;
+    }
+
+    private Order createOrder(long userId, BigDecimal totalPrice) {
         Order order = new Order();
         order.setUserId(userId);
-        order.setTotalAmount(getTotalPrice(userId));
+        order.setTotalAmount(totalPrice);
 
         return orderRepository.save(order);
     }
 
-    private BigDecimal getTotalPrice(long userId) {
-        BigDecimal totalPrice = this.userCartRepository.calculateTotalPriceByUserId(userId);
-        return totalPrice != null ? totalPrice : BigDecimal.ZERO;
-    }
-    
-    private void createOrderItem(OrderRequest body, long orderId, long userId) {
-
-        boolean allIdsExist = checkValidCartItem(body, userId);
+    private void placeOrderItems(Order order, long userId, List<OrderItem> orderItems, OrderRequest body) {
+        orderItems.forEach(orderItem -> orderItem.setOrderId(order.getId()));
+        orderItemRepository.insertAll(orderItems);
+        userCartRepository.deleteAllByIdInBatch(body.orderItems().stream()
+                .map(CartDto::getId)
+                .collect(Collectors.toList()));
+        cartTotalService.recompute(userId);
+        Map<Long, Integer> quantityByProduct = getQuantityByProduct(body);
+        stockReservationService.reserve(order.getId(), quantityByProduct);
 
-        if(allIdsExist) {
-            body.orderItems().stream()
-                    .map(cartItem -> {
-                        Product product = productRepository.findById(cartItem.getProductId())
-                                .orElseThrow(() -> new NotFoundException("Product not fount"));
+        if (redisCartStore.isEnabled()) {
+            redisCartStore.checkedOut(userId, quantityByProduct.keySet());
+        }
+    }
 
-                        OrderItem orderItem = new OrderItem();
-                        orderItem.setProductId(cartItem.getProductId());
-                        orderItem.setOrderId(orderId);
-                        orderItem.setPrice(product.getPrice());
-                        orderItem.setProductName(product.getName());
-                        orderItem.setQuantity(cartItem.getQuantity());
+    //with the Redis cart the lines carry product ids, the rows are written first
+    private OrderRequest toCartRows(long userId, OrderRequest body) {
+        return redisCartStore.isEnabled() ? redisCartStore.prepareCheckout(userId, body) : body;
+    }
 
-                        OrderItem save = this.orderItemRepository.save(orderItem);
+    private String writeItems(List<CartDto> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot queue order items", ex);
+        }
+    }
 
-                        userCartRepository.deleteById(cartItem.getId());
-                        return save;
-                    })
-                    .collect(Collectors.toList());
-        } else {
-            throw new CartItemNotFoundException("Cart Item not found");
+    private List<CartDto> readItems(String items) {
+        try {
+            return objectMapper.readValue(items, new TypeReference<List<CartDto>>() { });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot read queued order items", ex);
         }
     }
 
-    private boolean checkValidCartItem(OrderRequest body, long userId) {
-        List<Long> ids = body.orderItems().stream()
-                .map(cartDto -> cartDto.getId())
+    private BigDecimal getTotalPrice(List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .map(orderItem -> orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<OrderItem> createOrderItems(OrderRequest body) {
+        Set<Long> productIds = body.orderItems().stream()
+                .map(CartDto::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return body.orderItems().stream()
+                .map(cartItem -> {
+                    Product product = products.get(cartItem.getProductId());
+                    if (product == null) {
+                        throw new NotFoundException("Product not fount");
+                    }
+
+                    OrderItem orderItem = new OrderItem();
+                    orderItem.setProductId(cartItem.getProductId());
+                    orderItem.setPrice(product.getPrice());
+                    orderItem.setProductName(product.getName());
+                    orderItem.setQuantity(cartItem.getQuantity());
+                    return orderItem;
+                })
                 .collect(Collectors.toList());
+    }
+
+    private Map<Long, Integer> getQuantityByProduct(OrderRequest body) {
+        return body.orderItems().stream()
+                .collect(Collectors.toMap(CartDto::getProductId, CartDto::getQuantity, Integer::sum));
+    }
+
+    //products and quantities come from the stored cart, only the line ids are taken from the request
+    private OrderRequest loadCartLines(OrderRequest body, long userId) {
+        Set<Long> ids = body.orderItems().stream()
+                .map(CartDto::getId)
+                .collect(Collectors.toSet());
+
+        List<Cart> lines = userCartRepository.findAllByIdInAndUserId(ids, userId);
+        if (lines.size() != ids.size()) {
+            throw new CartItemNotFoundException("Cart Item not found");
+        }
 
-        return userCartRepository.checkAllIdsExist(ids, ids.size(), userId);
+        return new OrderRequest(lines.stream()
+                .map(line -> new CartDto(line.getId(), line.getProductId(), line.getQuantity()))
+                .toList());
     }
 
     private Map<String, Object> createDataByPagination(Page<Order> orderPage) {
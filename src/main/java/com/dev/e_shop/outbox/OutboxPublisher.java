@@ -0,0 +1,51 @@
+package com.dev.e_shop.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+
+//writes the event in the caller's transaction
+@Component
+public class OutboxPublisher {
+    private final OutboxEventRepository outboxEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository,
+                           EntityManager entityManager,
+                           ObjectMapper objectMapper,
+                           Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, long aggregateId, String eventType, Object payload) {
+        //writes the change first: its row lock orders the events of one aggregate by id
+        entityManager.flush();
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(String.valueOf(aggregateId))
+                .eventType(eventType)
+                .payload(write(payload))
+                .createdAt(clock.instant())
+                .build());
+    }
+
+    private String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize " + payload.getClass().getSimpleName(), ex);
+        }
+    }
+}
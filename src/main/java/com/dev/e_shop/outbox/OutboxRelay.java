@@ -0,0 +1,48 @@
+package com.dev.e_shop.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+//at-least-once: events are deleted only after the sink took the batch
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       @Value("${outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT0.5S}")
+    @Transactional(rollbackFor = Exception.class)
+    public int relay() {
+        if (!enabled) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findNextBatch(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        outboxSink.publish(events);
+        outboxEventRepository.deleteAllByIdInBatch(events.stream()
+                .map(OutboxEvent::getId)
+                .toList());
+
+        return events.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.dev.e_shop.outbox;
+
+import java.util.List;
+
+//batches may be redelivered, sinks must tolerate duplicates
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,50 @@
+package com.dev.e_shop.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+//one pipeline per batch into outbox:<aggregateType>
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOutboxSink implements OutboxSink {
+    static final String STREAM_PREFIX = "outbox:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final XAddOptions options;
+
+    public RedisStreamOutboxSink(StringRedisTemplate redisTemplate,
+                                 @Value("${outbox.stream.max-len:100000}") long maxLen) {
+        this.redisTemplate = redisTemplate;
+        //MAXLEN ~ lets Redis trim whole nodes, which keeps XADD cheap
+        this.options = XAddOptions.maxlen(maxLen).approximateTrimming(true);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                events.forEach(event -> redis.opsForStream().add(StreamRecords.newRecord()
+                        .in(STREAM_PREFIX + event.getAggregateType())
+                        .ofMap(Map.of(
+                                "eventId", String.valueOf(event.getId()),
+                                "aggregateId", event.getAggregateId(),
+                                "eventType", event.getEventType(),
+                                "payload", event.getPayload(),
+                                "createdAt", event.getCreatedAt().toString())), options));
+                return null;
+            }
+        });
+    }
+}
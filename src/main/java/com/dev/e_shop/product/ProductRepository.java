@@ -1,23 +1,43 @@
 package com.dev.e_shop.product;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
 
     @Query("SELECT p.id AS id, p.name AS name, p.stock AS stock FROM Product p WHERE p.id = :id")
     Optional<StockView> findStockViewById(@Param("id") Long id);
 
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    List<Product> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Optional<BigDecimal> findPriceById(@Param("id") long id);
+
+    @Query("SELECT p.id AS id, p.price AS price FROM Product p WHERE p.id IN :ids")
+    List<PriceView> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") long id);
+
     interface StockView {
         Long getId();
         String getName();
         int getStock();
     }
+
+    interface PriceView {
+        Long getId();
+        BigDecimal getPrice();
+    }
 }
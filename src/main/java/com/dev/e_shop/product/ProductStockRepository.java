@@ -0,0 +1,14 @@
+package com.dev.e_shop.product;
+
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductStockRepository {
+    //returns the new stock, empty when the product is missing or would go below 0
+    Optional<Integer> adjustStock(long id, int delta);
+
+    //one JDBC batch, a row count of 0 means missing or below 0
+    int[] adjustStocks(List<StockAdjustmentRequest> adjustments);
+}
@@ -0,0 +1,50 @@
+package com.dev.e_shop.product;
+
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+class ProductStockRepositoryImpl implements ProductStockRepository {
+    private static final String ADJUST_STOCK_SQL = """
+            UPDATE products
+            SET stock = stock + ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND is_deleted = false AND stock + ? >= 0
+            """;
+    private static final String ADJUST_STOCK_RETURNING_SQL = "SELECT stock FROM FINAL TABLE (" + ADJUST_STOCK_SQL + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Integer> adjustStock(long id, int delta) {
+        return jdbcTemplate.queryForList(ADJUST_STOCK_RETURNING_SQL, Integer.class, delta, id, delta)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public int[] adjustStocks(List<StockAdjustmentRequest> adjustments) {
+        return jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockAdjustmentRequest adjustment = adjustments.get(i);
+                ps.setInt(1, adjustment.delta());
+                ps.setLong(2, adjustment.productId());
+                ps.setInt(3, adjustment.delta());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return adjustments.size();
+            }
+        });
+    }
+}
@@ -5,6 +5,8 @@ import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.product.dto.CreateProductRequest;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.dto.UpdateProductRequest;
+import com.dev.e_shop.product.dto.StockBatchRequest;
+import com.dev.e_shop.product.dto.StockBatchResponse;
 import com.dev.e_shop.product.dto.StockProductDto;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -58,6 +60,15 @@ public class AdminProductController {
                 new ApiResponse<>(200, "Update stock of product success", response));
     }
 
+    @PatchMapping("/stock")
+    public ResponseEntity<ApiResponse<StockBatchResponse>> adjustStocks(
+            @Valid @RequestBody StockBatchRequest body) {
+        StockBatchResponse response = productService.adjustStocks(body);
+
+        return ResponseEntity.status(200).body(
+                new ApiResponse<>(200, "Adjust stock of products success", response));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> remove(
             @PathVariable int id) {
@@ -1,15 +1,27 @@
 package com.dev.e_shop.product.admin;
 
+import com.dev.e_shop.cart.total.CartTotalService;
+import com.dev.e_shop.exception.custom.InsufficientStockException;
 import com.dev.e_shop.exception.custom.NotFoundException;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.cache.ProductCacheKeys;
 import com.dev.e_shop.product.dto.*;
+import com.dev.e_shop.product.event.ProductEvents;
 import com.dev.e_shop.product.mapper.ProductMapper;
+import com.dev.e_shop.product.search.ProductSearchIndex;
+import com.dev.e_shop.product.stock.HotStockCounter;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Service
 @Transactional
 public class AdminProductService {
@@ -18,27 +30,48 @@ public class AdminProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCacheKeys productCacheKeys;
+    private final HotStockCounter hotStockCounter;
+    private final OutboxPublisher outboxPublisher;
+    private final CartTotalService cartTotalService;
 
-    public AdminProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public AdminProductService(ProductRepository productRepository,
+                               ProductMapper productMapper,
+                               ProductSearchIndex productSearchIndex,
+                               ProductCacheKeys productCacheKeys,
+                               HotStockCounter hotStockCounter,
+                               OutboxPublisher outboxPublisher,
+                               CartTotalService cartTotalService) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productCacheKeys = productCacheKeys;
+        this.hotStockCounter = hotStockCounter;
+        this.outboxPublisher = outboxPublisher;
+        this.cartTotalService = cartTotalService;
     }
 
-    @CacheEvict(value = "products", allEntries = true)
     public ProductResponse create(CreateProductRequest body) {
         Product product = productMapper.toProduct(body);
 
         Product savedProduct = productRepository.save(product);
-        return productMapper.toProductResponse(savedProduct);
+        productSearchIndex.index(savedProduct);
+        productCacheKeys.invalidate(productCacheKeys.tagsOf(savedProduct));
+
+        ProductResponse response = productMapper.toProductResponse(savedProduct);
+        outboxPublisher.record(ProductEvents.AGGREGATE_TYPE, savedProduct.getId(), ProductEvents.CREATED, response);
+
+        return response;
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
-            @CacheEvict(value = "products", allEntries = true)
-    })
+    @CacheEvict(value = "product", key = "#id")
     public ProductResponse updateProduct(long id, UpdateProductRequest body) {
         return productRepository.findById(id)
                 .map(product -> {
+                    Set<String> staleTags = new HashSet<>(productCacheKeys.tagsOf(product));
+                    BigDecimal previousPrice = product.getPrice();
+
                     if(body.getName() != null) product.setName(body.getName());
                     if(body.getBrand() != null) product.setBrand(body.getBrand());
                     if(body.getDescription() != null) product.setDescription(body.getDescription());
@@ -47,32 +80,67 @@ public class AdminProductService {
                     if(body.getImgUrl() != null) product.setImgUrl(body.getImgUrl());
 
                     Product updatedProduct = productRepository.save(product);
-                    return productMapper.toProductResponse(updatedProduct);
+                    productSearchIndex.index(updatedProduct);
+                    if (body.getPrice() != null) {
+                        cartTotalService.reprice(id, body.getPrice().subtract(previousPrice));
+                    }
+
+                    staleTags.addAll(productCacheKeys.tagsOf(updatedProduct));
+                    productCacheKeys.invalidate(staleTags);
+
+                    ProductResponse response = productMapper.toProductResponse(updatedProduct);
+                    outboxPublisher.record(ProductEvents.AGGREGATE_TYPE, id, ProductEvents.UPDATED, response);
+
+                    return response;
                 })
                 .orElseThrow(() -> createNotFoundException(id));
     }
 
+    //single conditional UPDATE that also returns the new stock
     public StockProductDto updateStockById(long id, StockProductDto body) {
-         return productRepository.findById(id)
-                .map(product -> {
-                    product.setStock(body.getStock() + product.getStock());
-                    Product updatedProduct = this.productRepository.save(product);
+        Integer stock = productRepository.adjustStock(id, body.getStock())
+                .orElseThrow(() -> productRepository.existsById(id)
+                        ? new InsufficientStockException(String.format("Stock of product with ID %d cannot go below 0", id))
+                        : createNotFoundException(id));
+        hotStockCounter.restock(id, body.getStock());
+        outboxPublisher.record(ProductEvents.AGGREGATE_TYPE, id, ProductEvents.STOCK_CHANGED,
+                new ProductEvents.StockChanged(id, body.getStock()));
 
-                    return new StockProductDto(updatedProduct.getStock());
-                })
-                .orElseThrow(() -> createNotFoundException(id));
+        return new StockProductDto(stock);
+    }
+
+    public StockBatchResponse adjustStocks(StockBatchRequest body) {
+        List<StockAdjustmentRequest> items = body.items();
+        int[] updated = productRepository.adjustStocks(items);
+
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (updated[i] == 0) {
+                rejected.add(items.get(i).productId());
+            } else {
+                StockAdjustmentRequest item = items.get(i);
+                hotStockCounter.restock(item.productId(), item.delta());
+                outboxPublisher.record(ProductEvents.AGGREGATE_TYPE, item.productId(), ProductEvents.STOCK_CHANGED,
+                        new ProductEvents.StockChanged(item.productId(), item.delta()));
+            }
+        }
+
+        return new StockBatchResponse(items.size() - rejected.size(), rejected);
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
-            @CacheEvict(value = "products", allEntries = true)
-    })
+    @CacheEvict(value = "product", key = "#id")
     public void remove(long id) {
-        productRepository.findById(1L)
+        productRepository.findById(id)
                 .map(product ->{
                     product.setDeleted(DELETE);
 
                     productRepository.save(product);
+                    productSearchIndex.remove(id);
+                    //carts keep the line, but a deleted product is not priced
+                    cartTotalService.reprice(id, product.getPrice().negate());
+                    productCacheKeys.invalidate(productCacheKeys.tagsOf(product));
+                    outboxPublisher.record(ProductEvents.AGGREGATE_TYPE, id, ProductEvents.DELETED,
+                            new ProductEvents.Deleted(id));
                     return product;
                 })
                 .orElseThrow(() -> createNotFoundException(id));
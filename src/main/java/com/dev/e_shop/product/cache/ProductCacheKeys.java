@@ -0,0 +1,132 @@
+package com.dev.e_shop.product.cache;
+
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.search.ProductSearchIndex;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//products cache keys carry tag generations, a write bumps its tags instead of deleting keys
+@Component
+public class ProductCacheKeys {
+    public static final String PAGE_TAG = "page";
+
+    private static final String SEARCH_TAG_PREFIX = "search:";
+    private static final String GENERATION_KEY_PREFIX = "products:generation:";
+    private static final int BUCKET_LENGTH = 2;
+
+    private final StringRedisTemplate redisTemplate;
+    private final LoadingCache<String, Long> generations;
+
+    public ProductCacheKeys(StringRedisTemplate redisTemplate,
+                            @Value("${cache.products.generation-refresh:PT1S}") Duration generationRefresh) {
+        this.redisTemplate = redisTemplate;
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(generationRefresh)
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Long load(String tag) {
+                        return parse(redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + tag));
+                    }
+
+                    @Override
+                    public Map<String, Long> loadAll(Set<? extends String> tags) {
+                        List<String> orderedTags = new ArrayList<>(tags);
+                        List<String> values = redisTemplate.opsForValue().multiGet(orderedTags
+                                .stream()
+                                .map(tag -> GENERATION_KEY_PREFIX + tag)
+                                .toList());
+
+                        Map<String, Long> loaded = new HashMap<>();
+                        for (int i = 0; i < orderedTags.size(); i++) {
+                            loaded.put(orderedTags.get(i), parse(values == null ? null : values.get(i)));
+                        }
+
+                        return loaded;
+                    }
+                });
+    }
+
+    public String page(int page, int size) {
+        return PAGE_TAG + ":" + generations.get(PAGE_TAG) + ":" + page + ":" + size;
+    }
+
+    public String cursor(String cursor, int size) {
+        return "cursor:" + generations.get(PAGE_TAG) + ":" + cursor + ":" + size;
+    }
+
+    public String search(String name, int page, int size) {
+        List<String> tags = ProductSearchIndex.tokenize(name)
+                .stream()
+                .map(token -> SEARCH_TAG_PREFIX + token.substring(0, Math.min(BUCKET_LENGTH, token.length())))
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+
+        if (tags.isEmpty()) {
+            tags.add(PAGE_TAG);
+        }
+
+        Map<String, Long> current = generations.getAll(tags);
+        String generation = tags.stream()
+                .map(tag -> String.valueOf(current.get(tag)))
+                .collect(Collectors.joining("."));
+
+        return "search:" + generation + ":" + page + ":" + size + ":" + name;
+    }
+
+    //tags that can hold the product, taken before and after a change
+    public Set<String> tagsOf(Product product) {
+        Set<String> tags = new HashSet<>();
+        tags.add(PAGE_TAG);
+
+        Stream.of(product.getName(), product.getBrand(), product.getDescription())
+                .flatMap(text -> ProductSearchIndex.tokenize(text).stream())
+                .forEach(term -> {
+                    for (int length = 1; length <= Math.min(BUCKET_LENGTH, term.length()); length++) {
+                        tags.add(SEARCH_TAG_PREFIX + term.substring(0, length));
+                    }
+                });
+
+        return tags;
+    }
+
+    //bumped after commit so pre-commit data is never cached under the new generation
+    public void invalidate(Collection<String> tags) {
+        List<String> staleTags = List.copyOf(tags);
+        if (staleTags.isEmpty()) {
+            return;
+        }
+
+        Runnable bump = () -> {
+            staleTags.forEach(tag -> redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + tag));
+            generations.invalidateAll(staleTags);
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+
+    private static long parse(String value) {
+        return value == null ? 0L : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dev.e_shop.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record StockAdjustmentRequest(
+        @NotNull(message = "productId is required")
+        Long productId,
+        int delta
+) { }
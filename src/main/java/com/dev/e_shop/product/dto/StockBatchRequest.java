@@ -0,0 +1,13 @@
+package com.dev.e_shop.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockBatchRequest(
+        @NotEmpty(message = "Items cannot be empty")
+        @Size(max = 1000, message = "At most 1000 items per batch")
+        List<@Valid StockAdjustmentRequest> items
+) { }
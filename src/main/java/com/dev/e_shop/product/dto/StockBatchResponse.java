@@ -0,0 +1,8 @@
+package com.dev.e_shop.product.dto;
+
+import java.util.List;
+
+public record StockBatchResponse(
+        int applied,
+        List<Long> rejectedProductIds
+) { }
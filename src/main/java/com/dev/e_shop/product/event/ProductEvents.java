@@ -0,0 +1,16 @@
+package com.dev.e_shop.product.event;
+
+//event types recorded in the outbox for the "product" aggregate
+public final class ProductEvents {
+    public static final String AGGREGATE_TYPE = "product";
+    public static final String CREATED = "ProductCreated";
+    public static final String UPDATED = "ProductUpdated";
+    public static final String STOCK_CHANGED = "ProductStockChanged";
+    public static final String DELETED = "ProductDeleted";
+
+    private ProductEvents() { }
+
+    public record StockChanged(long productId, int delta) { }
+
+    public record Deleted(long productId) { }
+}
@@ -34,6 +34,23 @@ public class PublicProductController {
                 ));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @Valid PaginationDto requestParamsDto) {
+
+        Map<String, Object> data = productService.getProductsByCursor(
+                cursor,
+                requestParamsDto.getSizeInt());
+
+        return ResponseEntity.status(200)
+                .body(new ApiResponse<>(
+                        200,
+                        "Get products success",
+                        data
+                ));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getProductByName(
             @RequestParam String name,
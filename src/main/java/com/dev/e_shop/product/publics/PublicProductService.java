@@ -1,34 +1,47 @@
 package com.dev.e_shop.product.publics;
 
 import com.dev.e_shop.dto.PaginationResponse;
+import com.dev.e_shop.exception.custom.InvalidCursorException;
 import com.dev.e_shop.exception.custom.NotFoundException;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.mapper.ProductMapper;
+import com.dev.e_shop.product.search.ProductSearchIndex;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class PublicProductService {
     private final String PRODUCT_KEY = "products";
     private final String PAGINATION_KEY = "pagination";
+    private final String NEXT_CURSOR_KEY = "nextCursor";
+    private final String CURSOR_PREFIX = "id:";
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
 
-    public PublicProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public PublicProductService(ProductRepository productRepository, ProductMapper productMapper, ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
     }
 
-    @Cacheable(value = "products",key = "#page + ':' + #size")
+    @Cacheable(value = "products", sync = true, key = "@productCacheKeys.page(#page, #size)")
     public Map<String, Object> getProductsByPagination(int page, int size) {
         PageRequest pageRequest = PageRequest.of(page, size);
 
@@ -37,7 +50,28 @@ public class PublicProductService {
         return createDataByPagination(productPage);
     }
 
-    @Cacheable(value = "product", key = "#id")
+    //keyset page: seeks past the cursor id, no OFFSET and no count query
+    @Cacheable(value = "products", sync = true, key = "@productCacheKeys.cursor(#cursor, #size)")
+    public Map<String, Object> getProductsByCursor(String cursor, int size) {
+        long lastId = decodeCursor(cursor);
+
+        List<Product> products = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(size + 1));
+
+        boolean hasNext = products.size() > size;
+        List<Product> content = hasNext ? products.subList(0, size) : products;
+
+        Map<String, Object> data = new HashMap<>();
+        data.put(PRODUCT_KEY, content
+                .stream()
+                .map(productMapper::toProductPreviewResponse)
+                .collect(Collectors.toList())
+        );
+        data.put(NEXT_CURSOR_KEY, hasNext ? encodeCursor(content.get(content.size() - 1).getId()) : null);
+
+        return data;
+    }
+
+    @Cacheable(value = "product", sync = true, key = "#id")
     public ProductResponse getProductDetailById(long id) {
         Product product = this.productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Product with ID " + id + " not found"));
@@ -46,11 +80,51 @@ public class PublicProductService {
     }
 
 
-    @Cacheable(value = "products", key = "#page + ':' + #size + ':' + #name")
+    @Cacheable(value = "products", sync = true, key = "@productCacheKeys.search(#name, #page, #size)")
     public Map<String, Object> getProductContainByName(String name, int page, int size) {
-        Page<Product> productPage = this.productRepository.findByNameContainingIgnoreCase(name, PageRequest.of(page, size));
+        PageRequest pageRequest = PageRequest.of(page, size);
 
-        return createDataByPagination(productPage);
+        if (!productSearchIndex.isReady()) {
+            Page<Product> productPage = this.productRepository.findByNameContainingIgnoreCase(name, pageRequest);
+            return createDataByPagination(productPage);
+        }
+
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(name, page, size);
+
+        Map<Long, Product> productsById = this.productRepository.findAllById(result.ids())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Product> rankedProducts = result.ids()
+                .stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return createDataByPagination(new PageImpl<>(rankedProducts, pageRequest, result.total()));
+    }
+
+    private String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Cursor is invalid");
+            }
+
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Cursor is invalid");
+        }
     }
 
     private Map<String, Object> createDataByPagination(Page<Product> productPage) {
@@ -0,0 +1,199 @@
+package com.dev.e_shop.product.search;
+
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+//in-memory inverted index over name, brand and description, built on startup
+@Component
+public class ProductSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByProduct.clear();
+            products.forEach(product -> add(product.getId(), weigh(product)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //terms are captured now, the index is updated after commit
+    public void index(Product product) {
+        long id = product.getId();
+        Map<String, Integer> weights = weigh(product);
+
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTerms(id);
+                add(id, weights);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(long productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTerms(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    //every token must prefix-match, ranked by summed field weight then id
+    public SearchResult search(String query, int page, int size) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        Map<Long, Integer> scores = null;
+
+        lock.readLock().lock();
+        try {
+            for (String term : queryTerms) {
+                Map<Long, Integer> matches = new HashMap<>();
+
+                postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                        .forEach((indexedTerm, products) -> {
+                            int bonus = indexedTerm.equals(term) ? EXACT_MATCH_BONUS : 1;
+                            products.forEach((id, weight) -> matches.merge(id, weight * bonus, Integer::sum));
+                        });
+
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ranked = scores.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        int from = (int) Math.min((long) page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+
+        return new SearchResult(ranked.subList(from, to), ranked.size());
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private Map<String, Integer> weigh(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getBrand()).forEach(term -> weights.merge(term, BRAND_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        return weights;
+    }
+
+    private void add(long id, Map<String, Integer> weights) {
+        weights.forEach((term, weight) -> postings
+                .computeIfAbsent(term, key -> new HashMap<>())
+                .put(id, weight));
+        termsByProduct.put(id, weights.keySet());
+    }
+
+    private void removeTerms(long id) {
+        Set<String> terms = termsByProduct.remove(id);
+        if (terms == null) {
+            return;
+        }
+
+        terms.forEach(term -> {
+            Map<Long, Integer> products = postings.get(term);
+            if (products != null) {
+                products.remove(id);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public record SearchResult(List<Long> ids, long total) { }
+}
@@ -0,0 +1,230 @@
+package com.dev.e_shop.product.stock;
+
+import com.dev.e_shop.product.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//Redis stock counters for hot products, changes queue in the pending hash
+@Component
+public class HotStockCounter {
+    static final String COUNTER_PREFIX = "stock:hot:";
+    static final String PENDING_KEY = "stock:hot:pending";
+    static final String LOCK_KEY = "stock:hot:reconciling";
+    static final String GENERATION_KEY = "stock:hot:generation";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+    private static final long SEED_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    //KEYS[1] pending hash, KEYS[2..n+1] counters; ARGV[1..n] quantities, ARGV[n+1..2n] product ids.
+    //Returns 0 when every counter was taken, i when the i-th one is short, -i when it is not seeded yet.
+    private static final RedisScript<Long> RESERVE = new DefaultRedisScript<>("""
+            local n = #KEYS - 1
+            for i = 1, n do
+                local stock = redis.call('GET', KEYS[i + 1])
+                if not stock then
+                    return -i
+                end
+                if tonumber(stock) < tonumber(ARGV[i]) then
+                    return i
+                end
+            end
+            for i = 1, n do
+                redis.call('DECRBY', KEYS[i + 1], ARGV[i])
+                redis.call('HINCRBY', KEYS[1], ARGV[n + i], -tonumber(ARGV[i]))
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            local n = #KEYS - 1
+            for i = 1, n do
+                if redis.call('EXISTS', KEYS[i + 1]) == 1 then
+                    redis.call('INCRBY', KEYS[i + 1], ARGV[i])
+                    redis.call('HINCRBY', KEYS[1], ARGV[n + i], ARGV[i])
+                end
+            end
+            return 0
+            """, Long.class);
+
+    //KEYS[1] counter, KEYS[2] pending hash, KEYS[3] lock, KEYS[4] generation; ARGV[1] stock in the database,
+    //ARGV[2] product id, ARGV[3] generation before the stock was read. Returns 1 when a reconcile got in between.
+    private static final RedisScript<Long> SEED = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[3]) == 1 or (redis.call('GET', KEYS[4]) or '0') ~= ARGV[3] then
+                return 1
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[2]) or '0')
+                redis.call('SET', KEYS[1], tonumber(ARGV[1]) + pending)
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RESTOCK = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                redis.call('INCRBY', KEYS[1], ARGV[1])
+            end
+            return 0
+            """, Long.class);
+
+    //KEYS[1] lock, KEYS[2] generation; ARGV[1] owner, ARGV[2] ttl in millis
+    private static final RedisScript<Long> LOCK = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                redis.call('INCR', KEYS[2])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN = new DefaultRedisScript<>("""
+            local pending = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return pending
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final Set<Long> hotProductIds;
+    private final String owner = UUID.randomUUID().toString();
+
+    public HotStockCounter(StringRedisTemplate redisTemplate,
+                           ProductRepository productRepository,
+                           @Value("${stock.hot.enabled:false}") boolean enabled,
+                           @Value("${stock.hot.product-ids:}") Set<Long> hotProductIds) {
+        this.redisTemplate = redisTemplate;
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isHot(long productId) {
+        return enabled && hotProductIds.contains(productId);
+    }
+
+    //all or nothing, returns the first product short of stock
+    public Optional<Long> reserve(SortedMap<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+
+        while (true) {
+            long result = execute(RESERVE, productIds, quantities);
+            if (result == 0) {
+                return Optional.empty();
+            }
+            if (result > 0) {
+                return Optional.of(productIds.get((int) result - 1));
+            }
+
+            long productId = productIds.get((int) -result - 1);
+            String generation = Objects.requireNonNullElse(redisTemplate.opsForValue().get(GENERATION_KEY), "0");
+            int stock = productRepository.findStockById(productId).orElse(0);
+            Long busy = redisTemplate.execute(SEED,
+                    List.of(COUNTER_PREFIX + productId, PENDING_KEY, LOCK_KEY, GENERATION_KEY),
+                    String.valueOf(stock),
+                    String.valueOf(productId),
+                    generation);
+            if (busy != null && busy == 1) {
+                LockSupport.parkNanos(SEED_RETRY_NANOS);
+            }
+        }
+    }
+
+    public void release(SortedMap<Long, Integer> quantities) {
+        if (!quantities.isEmpty()) {
+            execute(RELEASE, new ArrayList<>(quantities.keySet()), quantities);
+        }
+    }
+
+    //mirrors a direct column change after commit, unseeded counters are left alone
+    public void restock(long productId, int delta) {
+        if (!isHot(productId)) {
+            return;
+        }
+
+        afterCommit(() -> redisTemplate.execute(RESTOCK, List.of(COUNTER_PREFIX + productId), String.valueOf(delta)));
+    }
+
+    //held from drainPending until the drained changes are committed or restored, counters are not seeded meanwhile
+    public boolean lockReconcile() {
+        Long locked = redisTemplate.execute(LOCK, List.of(LOCK_KEY, GENERATION_KEY),
+                owner, String.valueOf(LOCK_TTL.toMillis()));
+        return locked != null && locked == 1;
+    }
+
+    public void unlockReconcile() {
+        redisTemplate.execute(UNLOCK, List.of(LOCK_KEY), owner);
+    }
+
+    //atomically takes every change not yet in the database
+    public Map<Long, Integer> drainPending() {
+        List<?> flat = redisTemplate.execute(DRAIN, List.of(PENDING_KEY));
+
+        Map<Long, Integer> pending = new TreeMap<>();
+        for (int i = 0; flat != null && i + 1 < flat.size(); i += 2) {
+            int delta = Integer.parseInt(String.valueOf(flat.get(i + 1)));
+            if (delta != 0) {
+                pending.put(Long.parseLong(String.valueOf(flat.get(i))), delta);
+            }
+        }
+
+        return pending;
+    }
+
+    //gives back changes that could not be written, so the next run retries them
+    public void restorePending(Map<Long, Integer> pending) {
+        pending.forEach((productId, delta) ->
+                redisTemplate.opsForHash().increment(PENDING_KEY, String.valueOf(productId), delta));
+    }
+
+    //the next reservation seeds the counter again from the column and the pending changes
+    public void reseed(long productId) {
+        redisTemplate.delete(COUNTER_PREFIX + productId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private long execute(RedisScript<Long> script, List<Long> productIds, Map<Long, Integer> quantities) {
+        List<String> keys = new ArrayList<>();
+        keys.add(PENDING_KEY);
+        productIds.forEach(productId -> keys.add(COUNTER_PREFIX + productId));
+
+        List<String> args = new ArrayList<>();
+        productIds.forEach(productId -> args.add(String.valueOf(quantities.get(productId))));
+        productIds.forEach(productId -> args.add(String.valueOf(productId)));
+
+        Long result = redisTemplate.execute(script, keys, args.toArray());
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,112 @@
+package com.dev.e_shop.product.stock;
+
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//drains hot stock changes into products.stock in one batch
+@Component
+public class HotStockReconciler {
+    private static final Logger log = LoggerFactory.getLogger(HotStockReconciler.class);
+
+    private final HotStockCounter hotStockCounter;
+    private final ProductRepository productRepository;
+
+    public HotStockReconciler(HotStockCounter hotStockCounter, ProductRepository productRepository) {
+        this.hotStockCounter = hotStockCounter;
+        this.productRepository = productRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.hot.reconcile-interval:PT1S}")
+    @Transactional(rollbackFor = Exception.class)
+    public int reconcile() {
+        if (!hotStockCounter.isEnabled() || !hotStockCounter.lockReconcile()) {
+            return 0;
+        }
+
+        //the drained changes leave Redis before the commit, the lock stays until they are committed or handed back
+        Map<Long, Integer> pending = new TreeMap<>();
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        if (transactional) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_ROLLED_BACK) {
+                            hotStockCounter.restorePending(pending);
+                        }
+                    } finally {
+                        hotStockCounter.unlockReconcile();
+                    }
+                }
+            });
+        }
+
+        try {
+            pending.putAll(hotStockCounter.drainPending());
+            if (pending.isEmpty()) {
+                return 0;
+            }
+
+            List<StockAdjustmentRequest> adjustments = pending.entrySet()
+                    .stream()
+                    .map(entry -> new StockAdjustmentRequest(entry.getKey(), entry.getValue()))
+                    .toList();
+            int[] updated = productRepository.adjustStocks(adjustments);
+
+            Map<Long, Integer> rejected = new TreeMap<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    rejected.put(adjustments.get(i).productId(), adjustments.get(i).delta());
+                }
+            }
+            if (!rejected.isEmpty()) {
+                afterCommit(() -> dropRejected(rejected));
+            }
+
+            return adjustments.size();
+        } catch (RuntimeException ex) {
+            if (!transactional) {
+                hotStockCounter.restorePending(pending);
+            }
+            throw ex;
+        } finally {
+            if (!transactional) {
+                hotStockCounter.unlockReconcile();
+            }
+        }
+    }
+
+    //retrying a change the column refuses would fail forever, drop it and rebuild the counter from the column
+    private void dropRejected(Map<Long, Integer> rejected) {
+        rejected.forEach((productId, delta) -> {
+            log.warn("Dropped hot stock change {} of product {}, the column refused it; reseeding its counter",
+                    delta, productId);
+            hotStockCounter.reseed(productId);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
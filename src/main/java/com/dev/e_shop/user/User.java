@@ -1,5 +1,6 @@
 package com.dev.e_shop.user;
 
+import com.dev.e_shop.user.event.UserChangeListener;
 import com.dev.e_shop.user.role.Roles;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserChangeListener.class})
 public class User {
 
     @Id
@@ -1,5 +1,6 @@
 package com.dev.e_shop.user;
 
+import com.dev.e_shop.auth.refreshToken.RefreshTokenService;
 import com.dev.e_shop.dto.ApiResponse;
 import com.dev.e_shop.user.profile.dto.ProfileRequest;
 import com.dev.e_shop.user.profile.dto.ProfileResponse;
@@ -12,9 +13,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/user/me")
 public class UserController {
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, RefreshTokenService refreshTokenService) {
         this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @GetMapping
@@ -42,4 +45,16 @@ public class UserController {
                         profile
                 ));
     }
+
+    @DeleteMapping("/sessions")
+    public ResponseEntity<ApiResponse<Void>> logoutEverywhere(@AuthenticationPrincipal UserDetail userDetail) {
+        refreshTokenService.deleteAllRefreshTokens(userDetail.getId());
+
+        return ResponseEntity.status(200)
+                .body(new ApiResponse<>(
+                        200,
+                        "Logout from all devices success",
+                        null
+                ));
+    }
 }
@@ -21,7 +21,7 @@ public class UserService {
         this.profileMapper = profileMapper;
     }
 
-    @Cacheable(value = "user", key = "#userDetail.getId()")
+    @Cacheable(value = "user", sync = true, key = "#userDetail.getId()")
     public ProfileResponse getProfile(UserDetail userDetail) {
         Profile profile = profileRepository.findByUserId(userDetail.getId())
                 .orElseGet(() -> creatProfile(userDetail.getId()));
@@ -0,0 +1,4 @@
+package com.dev.e_shop.user.event;
+
+public record UserChangedEvent(long userId, String email) {
+}
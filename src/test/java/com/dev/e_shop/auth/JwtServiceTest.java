@@ -25,6 +25,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +44,8 @@ class JwtServiceTest {
 
     String fakeSecretKey;
 
+    private static final String OLD_SECRET_KEY = "b2xkX3NlY3JldF9rZXlfb2xkX3NlY3JldF9rZXlfb2xkX3NlY3JldF9rZXk=";
+
     @BeforeEach
     void setUp() {
         Properties properties = new Properties();
@@ -54,11 +57,15 @@ class JwtServiceTest {
 
         fakeSecretKey = properties.getProperty("jwt.secret");
 
-        when(clock.instant()).thenReturn(fixedNow);
+        lenient().when(clock.instant()).thenReturn(fixedNow);
         lenient().when(clock.getZone()).thenReturn(ZoneOffset.UTC);
 
         jwtService = new JwtService(clock);
         ReflectionTestUtils.setField(jwtService, "secretKey", fakeSecretKey);
+        ReflectionTestUtils.setField(jwtService, "keyId", "default");
+        ReflectionTestUtils.setField(jwtService, "previousKeys", "old:" + OLD_SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaximumSize", 100L);
+        jwtService.init();
     }
 
     @Test
@@ -80,6 +87,7 @@ class JwtServiceTest {
 
         assertEquals("test@gmail.com", claims.getSubject());
         assertEquals("ROLE_USER", claims.get("role", String.class));
+        assertEquals(1L, claims.get(JwtService.USER_ID_CLAIM, Long.class));
         assertEquals(Instant.parse("2025-04-25T04:00:00Z"), claims.getIssuedAt().toInstant());
         assertEquals(Instant.parse("2025-04-25T05:00:00Z"), claims.getExpiration().toInstant());
 
@@ -135,4 +143,57 @@ class JwtServiceTest {
         assertEquals(issuedAtMillis, actual.getIssuedAt().getTime());
         assertEquals(expirationMillis, actual.getExpiration().getTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void extractClaims_withCachedTokenAfterExpiry_throwsExpiredJwtException() {
+        //given
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@gmail.com");
+        user.setRole(Roles.USER);
+
+        String token = this.jwtService.generateToken(new UserDetail(user));
+        this.jwtService.extractClaims(token);
+
+        //when
+        when(clock.instant()).thenReturn(fixedNow.plus(2, ChronoUnit.HOURS));
+
+        //then
+        assertThrows(ExpiredJwtException.class, () -> {
+            jwtService.extractClaims(token);
+        });
+    }
+
+    @Test
+    void extractClaims_withRotatedKeyId_verifiesWithPreviousKey() {
+        //given
+        String token = Jwts.builder()
+                .header().keyId("old").and()
+                .subject("test@gmail.com")
+                .expiration(Date.from(fixedNow.plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OLD_SECRET_KEY)))
+                .compact();
+
+        //when
+        Claims actual = this.jwtService.extractClaims(token);
+
+        //then
+        assertEquals("test@gmail.com", actual.getSubject());
+    }
+
+    @Test
+    void extractClaims_withUnknownKeyId_throwsJwtException() {
+        //given
+        String token = Jwts.builder()
+                .header().keyId("unknown").and()
+                .subject("test@gmail.com")
+                .expiration(Date.from(fixedNow.plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(fakeSecretKey)))
+                .compact();
+
+        //when //then
+        assertThrows(JwtException.class, () -> {
+            jwtService.extractClaims(token);
+        });
+    }
+}
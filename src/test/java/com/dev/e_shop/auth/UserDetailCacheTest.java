@@ -0,0 +1,69 @@
+package com.dev.e_shop.auth;
+
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import com.dev.e_shop.user.event.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailCacheTest {
+
+    SimpleMeterRegistry meterRegistry;
+
+    UserDetailCache userDetailCache;
+
+    AtomicInteger loads;
+
+    Function<String, UserDetail> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailCache = new UserDetailCache(meterRegistry, Duration.ofMinutes(1), 100);
+
+        loads = new AtomicInteger();
+        loader = email -> {
+            loads.incrementAndGet();
+
+            User user = new User();
+            user.setId(1L);
+            user.setEmail(email);
+            return new UserDetail(user);
+        };
+    }
+
+    @Test
+    void get_withCachedEmail_loadsOnceAndRecordsHitsAndMisses() {
+        //when
+        userDetailCache.get("test@gmail.com", loader);
+        userDetailCache.get("test@gmail.com", loader);
+        userDetailCache.get("test@gmail.com", loader);
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void onUserChanged_withCachedEmail_reloadsOnNextGet() {
+        //given
+        userDetailCache.get("test@gmail.com", loader);
+
+        //when
+        userDetailCache.onUserChanged(new UserChangedEvent(1L, "test@gmail.com"));
+        userDetailCache.get("test@gmail.com", loader);
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -1,9 +1,12 @@
 package com.dev.e_shop.auth.filter;
 
 import com.dev.e_shop.auth.JwtService;
+import com.dev.e_shop.auth.UserRevocationCache;
 import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,13 +20,18 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class JwtAuthTokenFilterTest {
@@ -36,6 +44,9 @@ class JwtAuthTokenFilterTest {
     @Mock
     UserDetailsService userDetailsService;
 
+    @Mock
+    UserRevocationCache userRevocationCache;
+
     private User user;
 
     private UserDetail userDetail;
@@ -79,4 +90,62 @@ class JwtAuthTokenFilterTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    void doFilterInternal_statelessWithClaims_authenticatesWithoutUserLookup() throws ServletException, IOException {
+        //given
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(authTokenJwtFilter, "stateless", true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid-token");
+        FilterChain filterChain = mock(FilterChain.class);
+
+        Instant issuedAt = Instant.parse("2025-01-01T00:00:00Z");
+        given(jwtService.extractClaims("valid-token")).willReturn(claims(issuedAt));
+        given(userRevocationCache.isRevoked(1L, issuedAt)).willReturn(false);
+
+        //when
+        authTokenJwtFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        //then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetail principal = (UserDetail) authentication.getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertEquals("test@gmail.com", principal.getUsername());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+        then(userDetailsService).should(never()).loadUserByUsername(anyString());
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_statelessWithRevokedUser_leavesRequestUnauthenticated() throws ServletException, IOException {
+        //given
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(authTokenJwtFilter, "stateless", true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked-token");
+        FilterChain filterChain = mock(FilterChain.class);
+
+        Instant issuedAt = Instant.parse("2025-01-01T00:00:00Z");
+        given(jwtService.extractClaims("revoked-token")).willReturn(claims(issuedAt));
+        given(userRevocationCache.isRevoked(1L, issuedAt)).willReturn(true);
+
+        //when
+        authTokenJwtFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        //then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertInstanceOf(JwtException.class, request.getAttribute("jwt_exception"));
+    }
+
+    private Claims claims(Instant issuedAt) {
+        return Jwts.claims()
+                .subject("test@gmail.com")
+                .add(JwtService.USER_ID_CLAIM, 1L)
+                .add(JwtService.ROLE_CLAIM, "ROLE_USER")
+                .issuedAt(Date.from(issuedAt))
+                .build();
+    }
+}
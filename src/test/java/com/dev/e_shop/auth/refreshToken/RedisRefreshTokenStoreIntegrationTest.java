@@ -0,0 +1,112 @@
+package com.dev.e_shop.auth.refreshToken;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class RedisRefreshTokenStoreIntegrationTest {
+
+    @Autowired
+    StringRedisTemplate redisTemplate;
+
+    RedisRefreshTokenStore refreshTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().flushAll();
+        refreshTokenStore = new RedisRefreshTokenStore(redisTemplate);
+    }
+
+    @Test
+    void save_withToken_storesHashedKeyThatExpiresWithToken() {
+        //given
+        Instant expiryDate = Instant.now().plus(7, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+
+        //when
+        refreshTokenStore.save(refreshToken("token-1", 1L, expiryDate));
+
+        //then
+        Optional<RefreshToken> actual = refreshTokenStore.findByToken("token-1");
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getUserId()).isEqualTo(1L);
+        assertThat(actual.get().getExpiryDate()).isEqualTo(expiryDate);
+
+        assertThat(redisTemplate.keys("refresh:token:*"))
+                .hasSize(1)
+                .noneMatch(key -> key.contains("token-1"));
+        assertThat(redisTemplate.getExpire(redisTemplate.keys("refresh:token:*").iterator().next()))
+                .isPositive();
+    }
+
+    @Test
+    void deleteByToken_withStoredToken_removesOnlyThatToken() {
+        //given
+        Instant expiryDate = Instant.now().plus(7, ChronoUnit.DAYS);
+        refreshTokenStore.save(refreshToken("token-1", 1L, expiryDate));
+        refreshTokenStore.save(refreshToken("token-2", 1L, expiryDate));
+
+        //when
+        refreshTokenStore.deleteByToken("token-1");
+
+        //then
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+        assertThat(refreshTokenStore.findByToken("token-2")).isPresent();
+        assertThat(redisTemplate.opsForZSet().size("refresh:user:1")).isEqualTo(1);
+    }
+
+    @Test
+    void deleteAllByUserId_withTokensOnSeveralDevices_removesAllTokensOfUser() {
+        //given
+        Instant expiryDate = Instant.now().plus(7, ChronoUnit.DAYS);
+        refreshTokenStore.save(refreshToken("token-1", 1L, expiryDate));
+        refreshTokenStore.save(refreshToken("token-2", 1L, expiryDate));
+        refreshTokenStore.save(refreshToken("token-3", 2L, expiryDate));
+
+        //when
+        refreshTokenStore.deleteAllByUserId(1L);
+
+        //then
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+        assertThat(refreshTokenStore.findByToken("token-2")).isEmpty();
+        assertThat(refreshTokenStore.findByToken("token-3")).isPresent();
+        assertThat(redisTemplate.hasKey("refresh:user:1")).isFalse();
+    }
+
+    @Test
+    void save_afterOtherTokenExpired_dropsItFromUserTokens() throws Exception {
+        //given
+        refreshTokenStore.save(refreshToken("token-1", 1L, Instant.now().plusMillis(500)));
+        Thread.sleep(1000);
+
+        //when
+        refreshTokenStore.save(refreshToken("token-2", 1L, Instant.now().plus(7, ChronoUnit.DAYS)));
+
+        //then
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+        assertThat(redisTemplate.opsForZSet().size("refresh:user:1")).isEqualTo(1);
+    }
+
+    private RefreshToken refreshToken(String token, long userId, Instant expiryDate) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setToken(token);
+        refreshToken.setUserId(userId);
+        refreshToken.setExpiryDate(expiryDate);
+        return refreshToken;
+    }
+}
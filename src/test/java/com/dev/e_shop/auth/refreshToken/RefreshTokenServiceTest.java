@@ -29,7 +29,7 @@ class RefreshTokenServiceTest {
     RefreshTokenService refreshTokenService;
 
     @Mock
-    RefreshTokenRepository refreshTokenRepository;
+    RefreshTokenStore refreshTokenStore;
 
     @Mock
     UserRepository userRepository;
@@ -60,7 +60,7 @@ class RefreshTokenServiceTest {
         savedRefreshToken.setExpiryDate(expiryDate);
 
         given(this.userRepository.findByEmail(email)).willReturn(Optional.of(user));
-        given(this.refreshTokenRepository.save(any(RefreshToken.class))).willReturn(savedRefreshToken);
+        given(this.refreshTokenStore.save(any(RefreshToken.class))).willReturn(savedRefreshToken);
 
         //when
         RefreshToken actual = this.refreshTokenService.create(email);
@@ -100,8 +100,10 @@ class RefreshTokenServiceTest {
         savedRefreshToken.setExpiryDate(Instant.parse("2025-04-25T04:00:00Z"));
         savedRefreshToken.setToken(token);
 
-        given(this.refreshTokenRepository.findByToken(token))
+        given(this.refreshTokenStore.findByToken(token))
                 .willReturn(Optional.of(savedRefreshToken));
+        given(this.refreshTokenStore.slidingExpiry()).willReturn(true);
+        given(this.refreshTokenStore.save(savedRefreshToken)).willReturn(savedRefreshToken);
 
         //when
         RefreshToken actual = this.refreshTokenService.verifyRefreshToken(token);
@@ -109,6 +111,28 @@ class RefreshTokenServiceTest {
         //then
         assertNotNull(actual);
         assertEquals(1L,actual.getId());
+        assertEquals(Instant.parse("2025-05-02T04:00:00Z"), actual.getExpiryDate());
+    }
+
+    @Test
+    void verifyRefreshToken_withStoreWithoutSlidingExpiry_keepsExpiryDate() {
+        String token = "valid-token";
+        when(clock.instant()).thenReturn(Instant.parse("2025-04-25T04:00:00Z"));
+
+        RefreshToken savedRefreshToken = new RefreshToken();
+        savedRefreshToken.setId(1L);
+        savedRefreshToken.setExpiryDate(Instant.parse("2025-04-26T04:00:00Z"));
+        savedRefreshToken.setToken(token);
+
+        given(this.refreshTokenStore.findByToken(token))
+                .willReturn(Optional.of(savedRefreshToken));
+
+        //when
+        RefreshToken actual = this.refreshTokenService.verifyRefreshToken(token);
+
+        //then
+        assertEquals(Instant.parse("2025-04-26T04:00:00Z"), actual.getExpiryDate());
+        verify(this.refreshTokenStore, never()).save(any(RefreshToken.class));
     }
 
     @Test
@@ -121,9 +145,9 @@ class RefreshTokenServiceTest {
         savedRefreshToken.setExpiryDate(Instant.parse("2025-04-25T04:00:00Z"));
         savedRefreshToken.setToken(token);
 
-        given(this.refreshTokenRepository.findByToken(token))
+        given(this.refreshTokenStore.findByToken(token))
                 .willReturn(Optional.of(savedRefreshToken));
-        doNothing().when(this.refreshTokenRepository).delete(savedRefreshToken);
+        doNothing().when(this.refreshTokenStore).deleteByToken(token);
         //when
         InvalidRefreshTokenException exception = assertThrows(InvalidRefreshTokenException.class, () -> {
             this.refreshTokenService.verifyRefreshToken(token);
@@ -138,7 +162,7 @@ class RefreshTokenServiceTest {
         // Given
         String token = "invalid-token";
 
-        given(this.refreshTokenRepository.findByToken(token))
+        given(this.refreshTokenStore.findByToken(token))
                 .willReturn(Optional.empty());
 
         // When & Then
@@ -153,11 +177,20 @@ class RefreshTokenServiceTest {
     void deleteRefreshToken_whenLogout_removesRefreshToken() {
         String token = "valid-token";
 
-        willDoNothing().given(this.refreshTokenRepository).deleteByToken(token);
+        willDoNothing().given(this.refreshTokenStore).deleteByToken(token);
 
         //when
         this.refreshTokenService.deleteRefreshToken(token);
 
-        verify(this.refreshTokenRepository, times(1)).deleteByToken(token);
+        verify(this.refreshTokenStore, times(1)).deleteByToken(token);
+    }
+
+    @Test
+    void deleteAllRefreshTokens_whenLogoutEverywhere_removesTokensOfUser() {
+        //when
+        this.refreshTokenService.deleteAllRefreshTokens(1L);
+
+        //then
+        verify(this.refreshTokenStore, times(1)).deleteAllByUserId(1L);
     }
-}
\ No newline at end of file
+}
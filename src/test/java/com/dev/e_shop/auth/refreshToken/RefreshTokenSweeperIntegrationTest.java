@@ -0,0 +1,100 @@
+package com.dev.e_shop.auth.refreshToken;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class RefreshTokenSweeperIntegrationTest {
+    private static final Instant NOW = Instant.parse("2025-04-25T04:00:00Z");
+
+    @Autowired
+    RefreshTokenRepository refreshTokenRepository;
+
+    SimpleMeterRegistry meterRegistry;
+
+    RefreshTokenSweeper refreshTokenSweeper;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenSweeper = new RefreshTokenSweeper(
+                refreshTokenRepository,
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                meterRegistry,
+                true,
+                2,
+                Duration.ZERO,
+                10);
+    }
+
+    @Test
+    void sweep_withExpiredTokens_deletesThemInBatchesAndKeepsValidOnes() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            refreshTokenRepository.save(refreshToken("expired-" + i, NOW.minus(i + 1, ChronoUnit.DAYS)));
+        }
+        refreshTokenRepository.save(refreshToken("valid", NOW.plus(1, ChronoUnit.DAYS)));
+
+        //when
+        int actual = refreshTokenSweeper.sweep();
+
+        //then
+        assertThat(actual).isEqualTo(5);
+        assertThat(refreshTokenRepository.findAll())
+                .extracting(RefreshToken::getToken)
+                .containsExactly("valid");
+        assertThat(meterRegistry.get("auth.refresh-token.sweep.deleted").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("auth.refresh-token.sweep.batch").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void sweep_withMaxBatchesReached_leavesRestForNextRun() {
+        //given
+        refreshTokenSweeper = new RefreshTokenSweeper(
+                refreshTokenRepository,
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                meterRegistry,
+                true,
+                2,
+                Duration.ZERO,
+                1);
+        for (int i = 0; i < 3; i++) {
+            refreshTokenRepository.save(refreshToken("expired-" + i, NOW.minus(i + 1, ChronoUnit.DAYS)));
+        }
+
+        //when
+        int actual = refreshTokenSweeper.sweep();
+
+        //then
+        assertThat(actual).isEqualTo(2);
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+    }
+
+    private RefreshToken refreshToken(String token, Instant expiryDate) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setToken(token);
+        refreshToken.setUserId(1L);
+        refreshToken.setExpiryDate(expiryDate);
+        return refreshToken;
+    }
+}
@@ -0,0 +1,217 @@
+package com.dev.e_shop.cart;
+
+import com.dev.e_shop.cart.dto.CartBatchRequest;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartOperation;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.cart.total.CartTotalService;
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.exception.custom.CartItemNotFoundException;
+import com.dev.e_shop.exception.custom.NotFoundException;
+import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.publics.PublicProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class RedisCartStoreIntegrationTest {
+    private static final long USER_ID = 9001L;
+
+    @Autowired
+    StringRedisTemplate redisTemplate;
+
+    @Autowired
+    UserCartRepository userCartRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    CartTotalService cartTotalService;
+
+    @Autowired
+    PublicProductService publicProductService;
+
+    ProductFixture products;
+    Product first;
+    Product second;
+
+    RedisCartStore redisCartStore;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+        first = products.save("Redis cart phone 1", "100.0");
+        second = products.save("Redis cart phone 2", "50.0");
+
+        redisCartStore = new RedisCartStore(redisTemplate, userCartRepository, cartTotalService, publicProductService, "redis", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(List.of(RedisCartStore.CART_PREFIX + USER_ID, RedisCartStore.DIRTY_KEY,
+                RedisCartStore.CHECKOUT_PREFIX + USER_ID));
+        userCartRepository.deleteAll(userCartRepository.findAllByUserId(USER_ID));
+        products.deleteAll();
+    }
+
+    @Test
+    void addItem_thenFlush_writesCartBehindToTable() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+        redisCartStore.addItem(USER_ID, first.getId());
+        redisCartStore.addItem(USER_ID, second.getId());
+
+        //when
+        CartResponse cart = redisCartStore.getCart(USER_ID);
+        int flushed = redisCartStore.flushDirty();
+
+        //then
+        assertThat(cart.totalPrice()).isEqualByComparingTo("250.0");
+        assertThat(flushed).isEqualTo(1);
+        assertThat(userCartRepository.findAllByUserId(USER_ID))
+                .extracting(Cart::getProductId, Cart::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(first.getId(), 2),
+                        tuple(second.getId(), 1));
+    }
+
+    @Test
+    void flushDirty_afterQuantityChangeAndRemoval_keepsRowIds() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+        redisCartStore.addItem(USER_ID, second.getId());
+        redisCartStore.flushDirty();
+        long rowId = userCartRepository.findByProductIdAndUserId(first.getId(), USER_ID).orElseThrow().getId();
+
+        //when
+        redisCartStore.setQuantity(USER_ID, first.getId(), 5);
+        redisCartStore.removeItem(USER_ID, second.getId());
+        redisCartStore.flushDirty();
+
+        //then
+        assertThat(userCartRepository.findAllByUserId(USER_ID))
+                .extracting(Cart::getId, Cart::getQuantity)
+                .containsExactly(tuple(rowId, 5));
+    }
+
+    @Test
+    void getCart_withCartOnlyInTable_loadsItIntoRedis() {
+        //given
+        userCartRepository.save(Cart.builder().userId(USER_ID).productId(second.getId()).quantity(3).build());
+
+        //when
+        CartResponse cart = redisCartStore.getCart(USER_ID);
+
+        //then
+        assertThat(cart.carts()).extracting(CartDto::getProductId, CartDto::getQuantity)
+                .containsExactly(tuple(second.getId(), 3));
+        assertThat(cart.totalPrice()).isEqualByComparingTo("150.0");
+        assertThat(redisTemplate.opsForHash().get(RedisCartStore.CART_PREFIX + USER_ID, String.valueOf(second.getId())))
+                .isEqualTo("3");
+    }
+
+    @Test
+    void prepareCheckout_mapsProductIdsToCartRows() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+        redisCartStore.addItem(USER_ID, first.getId());
+
+        //when
+        OrderRequest actual = redisCartStore.prepareCheckout(USER_ID,
+                new OrderRequest(List.of(new CartDto(first.getId(), first.getId(), 9))));
+
+        //then
+        long rowId = userCartRepository.findByProductIdAndUserId(first.getId(), USER_ID).orElseThrow().getId();
+        assertThat(actual.orderItems()).extracting(CartDto::getId, CartDto::getQuantity)
+                .containsExactly(tuple(rowId, 2));
+
+        assertThrows(CartItemNotFoundException.class, () -> redisCartStore.prepareCheckout(USER_ID,
+                new OrderRequest(List.of(new CartDto(second.getId(), second.getId(), 1)))));
+    }
+
+    @Test
+    void flushDirty_beforeCheckedOutLinesLeaveRedis_doesNotWriteThemBack() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+        OrderRequest checkout = redisCartStore.prepareCheckout(USER_ID,
+                new OrderRequest(List.of(new CartDto(first.getId(), first.getId(), 1))));
+        userCartRepository.deleteAllByIdInBatch(List.of(checkout.orderItems().get(0).getId()));
+        redisCartStore.addItem(USER_ID, second.getId());
+
+        //when
+        redisCartStore.flushDirty();
+
+        //then
+        assertThat(userCartRepository.findAllByUserId(USER_ID))
+                .extracting(Cart::getProductId)
+                .containsExactly(second.getId());
+
+        //when
+        redisCartStore.checkedOut(USER_ID, List.of(first.getId()));
+
+        //then
+        assertThat(redisCartStore.getCart(USER_ID).carts()).extracting(CartDto::getProductId)
+                .containsExactly(second.getId());
+        assertThat(redisTemplate.hasKey(RedisCartStore.CHECKOUT_PREFIX + USER_ID)).isFalse();
+    }
+
+    @Test
+    void setQuantity_withProductNotInCart_throwsNotFoundException() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+
+        //when
+        assertThrows(NotFoundException.class, () -> redisCartStore.setQuantity(USER_ID, second.getId(), 2));
+    }
+
+    @Test
+    void applyBatch_withMixedOperations_appliesThemInOrder() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+
+        //when
+        CartResponse cart = redisCartStore.applyBatch(USER_ID, new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.ADD, second.getId(), null, 3),
+                new CartOperation(CartOperation.Type.SET_QUANTITY, null, second.getId(), 2),
+                new CartOperation(CartOperation.Type.REMOVE, null, first.getId(), null))));
+
+        //then
+        assertThat(cart.carts()).extracting(CartDto::getProductId, CartDto::getQuantity)
+                .containsExactly(tuple(second.getId(), 2));
+        assertThat(cart.totalPrice()).isEqualByComparingTo("100.0");
+    }
+
+    @Test
+    void applyBatch_withMissingLine_appliesNothing() {
+        //given
+        redisCartStore.addItem(USER_ID, first.getId());
+
+        //when
+        assertThrows(NotFoundException.class, () -> redisCartStore.applyBatch(USER_ID, new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.ADD, first.getId(), null, 5),
+                new CartOperation(CartOperation.Type.REMOVE, null, second.getId(), null)))));
+
+        //then
+        assertThat(redisCartStore.getCart(USER_ID).carts()).extracting(CartDto::getQuantity).containsExactly(1);
+    }
+}
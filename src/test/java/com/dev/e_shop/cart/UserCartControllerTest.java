@@ -1,6 +1,7 @@
 package com.dev.e_shop.cart;
 
 import com.dev.e_shop.cart.dto.AddItemRequest;
+import com.dev.e_shop.cart.dto.CartBatchRequest;
 import com.dev.e_shop.cart.dto.CartDto;
 import com.dev.e_shop.cart.dto.CartResponse;
 import com.dev.e_shop.cart.dto.UpdateItemRequest;
@@ -265,4 +266,47 @@ class UserCartControllerTest {
                 .andExpect(jsonPath("$.errors[0]").value("Item cart with ID 1 not found in your cart"))
                 .andExpect(jsonPath("$.path").value("/api/user/cart/1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyCartBatch_withValidOperations_returns200() throws Exception {
+        //given
+        String json = """
+                {"operations": [
+                    {"type": "ADD", "productId": 3, "amount": 2},
+                    {"type": "SET_QUANTITY", "cartItemId": 1, "amount": 4},
+                    {"type": "REMOVE", "cartItemId": 2}
+                ]}
+                """;
+
+        given(this.userCartService.applyBatch(any(CartBatchRequest.class), any(UserDetail.class)))
+                .willReturn(cartResponse);
+
+        //when and then
+        this.mockMvc.perform(post("/api/user/cart/me/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.message").value("Apply the cart operations success"))
+                .andExpect(jsonPath("$.data.carts.size()", Matchers.equalTo(2)));
+
+        verify(this.userCartService, times(1)).applyBatch(any(CartBatchRequest.class), any(UserDetail.class));
+    }
+
+    @Test
+    void applyCartBatch_withIncompleteOperation_returns400() throws Exception {
+        //given
+        String json = """
+                {"operations": [{"type": "SET_QUANTITY", "cartItemId": 1}]}
+                """;
+
+        //when and then
+        this.mockMvc.perform(post("/api/user/cart/me/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(400));
+
+        verify(this.userCartService, never()).applyBatch(any(CartBatchRequest.class), any(UserDetail.class));
+    }
+}
@@ -0,0 +1,73 @@
+package com.dev.e_shop.cart;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class UserCartRepositoryIntegrationTest {
+    private static final long USER_ID = 9201L;
+    private static final long PRODUCT_ID = 42L;
+
+    @Autowired
+    UserCartRepository userCartRepository;
+
+    @AfterEach
+    void tearDown() {
+        userCartRepository.deleteAll(userCartRepository.findAllByUserId(USER_ID));
+    }
+
+    @Test
+    void addQuantity_fromManyThreads_keepsOneLineWithEveryAdd() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                userCartRepository.addQuantity(USER_ID, PRODUCT_ID, 1);
+                return null;
+            }));
+        }
+
+        //when
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(userCartRepository.findAllByUserId(USER_ID))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getQuantity()).isEqualTo(20));
+    }
+
+    @Test
+    void save_withSecondLineOfSameProduct_violatesUniqueConstraint() {
+        //given
+        userCartRepository.addQuantity(USER_ID, PRODUCT_ID, 1);
+
+        //when
+        assertThrows(DataIntegrityViolationException.class, () -> userCartRepository.save(
+                Cart.builder().userId(USER_ID).productId(PRODUCT_ID).quantity(1).build()));
+    }
+}
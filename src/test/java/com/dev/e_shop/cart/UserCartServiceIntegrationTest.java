@@ -6,7 +6,6 @@ import com.dev.e_shop.cart.dto.CartResponse;
 import com.dev.e_shop.cart.dto.UpdateItemRequest;
 //import com.dev.e_shop.config.EmbeddedRedisConfig;
 import com.dev.e_shop.config.EmbeddedRedisConfig;
-import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
@@ -30,6 +29,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -72,11 +72,7 @@ public class UserCartServiceIntegrationTest {
 
         AddItemRequest body = new AddItemRequest(3L);
 
-        Cart cart = new Cart();
-
-        given(this.productRepository.findById(3L)).willReturn(Optional.of(new Product()));
-        given(this.userCartRepository.findByProductIdAndUserId(3L, 1L)).willReturn(Optional.of(cart));
-        given(this.userCartRepository.save(cart)).willReturn(new Cart());
+        given(this.productRepository.findPriceById(3L)).willReturn(Optional.of(new BigDecimal("100")));
 
         // when
         CartResponse response = userCartService.addCartItem(body, userDetail);
@@ -85,9 +81,9 @@ public class UserCartServiceIntegrationTest {
         CartResponse cache = (CartResponse) redisTemplate.opsForValue().get(cacheKey);
 
         assertThat(cache).isNotNull();
-        assertEquals(cache, response);
+        assertThat(cache).usingRecursiveComparison().isEqualTo(response);
 
-        verify(this.userCartRepository, times(1)).save(any(Cart.class));
+        verify(this.userCartRepository, times(1)).addQuantity(1L, 3L, 1);
     }
 
     @Test
@@ -107,7 +103,7 @@ public class UserCartServiceIntegrationTest {
 
         given(this.userCartRepository.findByIdAndUserId(anyLong(), anyLong()))
                 .willReturn(Optional.of(new Cart()));
-        given(this.userCartRepository.save(new Cart())).willReturn(new Cart());
+        willReturn(new Cart()).given(this.userCartRepository).save(any(Cart.class));
 
         //when
         CartResponse response = userCartService.updateQuantityOfItem(body, userDetail);
@@ -1,11 +1,13 @@
 package com.dev.e_shop.cart;
 
 import com.dev.e_shop.cart.dto.AddItemRequest;
+import com.dev.e_shop.cart.dto.CartBatchRequest;
 import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartOperation;
 import com.dev.e_shop.cart.dto.CartResponse;
 import com.dev.e_shop.cart.dto.UpdateItemRequest;
+import com.dev.e_shop.cart.total.CartTotalService;
 import com.dev.e_shop.exception.custom.NotFoundException;
-import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
@@ -19,12 +21,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -39,6 +45,9 @@ class UserCartServiceTest {
     @Mock
     ProductRepository productRepository;
 
+    @Mock
+    CartTotalService cartTotalService;
+
     UserDetail userDetail;
 
     @BeforeEach
@@ -52,71 +61,22 @@ class UserCartServiceTest {
 
 
     @Test
-    void addCartItem_withValidCartItem_savesCartItem() {
+    void addCartItem_withValidProduct_upsertsCartItemAndAddsPriceToTotal() {
         // given
         AddItemRequest body = new AddItemRequest(1L);
 
-        Cart cartItem = Cart.builder()
-                .id(1L)
-                .userId(1L)
-                .productId(1L)
-                .quantity(1)
-                .build();
-        given(this.productRepository.findById(1L)).willReturn(Optional.of(new Product()));
-        given(userCartRespository.findByProductIdAndUserId(1L, 1L)).willReturn(Optional.empty());
-        given(userCartRespository.save(any(Cart.class))).willReturn(cartItem);
+        given(this.productRepository.findPriceById(1L)).willReturn(Optional.of(new BigDecimal("300")));
 
         // when
         userCartService.addCartItem(body, userDetail);
 
         // then
-        ArgumentCaptor<Cart> cartCaptor = ArgumentCaptor.forClass(Cart.class);
-        verify(userCartRespository).save(cartCaptor.capture());
+        verify(userCartRespository).addQuantity(1L, 1L, 1);
+        verify(cartTotalService).apply(1L, new BigDecimal("300"));
 
-        Cart savedCart = cartCaptor.getValue();
-        assertEquals(1L, savedCart.getUserId());
-        assertEquals(1L, savedCart.getProductId());
-        assertEquals(1, savedCart.getQuantity());
-
-        verify(this.productRepository).findById(1L);
-    }
-
-    @Test
-    void addCartItem_withExistingCartItem_increaseQuantityBy1() {
-        // given
-        AddItemRequest body = new AddItemRequest(1L);
-
-        Cart existingCartItem = Cart.builder()
-                .id(1L)
-                .userId(1L)
-                .productId(1L)
-                .quantity(1)
-                .build();
-
-        Cart updatedCartItem = Cart.builder()
-                .id(1L)
-                .userId(1L)
-                .productId(1L)
-                .quantity(2) // updated
-                .build();
-
-        given(this.productRepository.findById(1L)).willReturn(Optional.of(new Product()));
-        given(userCartRespository.findByProductIdAndUserId(1L, 1L))
-                .willReturn(Optional.of(existingCartItem));
-
-        given(userCartRespository.save(existingCartItem)).willReturn(updatedCartItem);
-
-        // when
-        userCartService.addCartItem(body, userDetail);
-
-        // then
-        ArgumentCaptor<Cart> cartCaptor = ArgumentCaptor.forClass(Cart.class);
-        verify(userCartRespository).save(cartCaptor.capture());
-
-        Cart savedCart = cartCaptor.getValue();
-        assertEquals(1L, savedCart.getUserId());
-        assertEquals(1L, savedCart.getProductId());
-        assertEquals(2, savedCart.getQuantity());
+        verify(this.productRepository, never()).findById(anyLong());
+        verify(userCartRespository, never()).findByProductIdAndUserId(anyLong(), anyLong());
+        verify(userCartRespository, never()).save(any(Cart.class));
     }
 
     @Test
@@ -124,7 +84,7 @@ class UserCartServiceTest {
         // given
         AddItemRequest body = new AddItemRequest(1000L);
 
-        given(productRepository.findById(1000L))
+        given(productRepository.findPriceById(1000L))
                 .willReturn(Optional.empty());
 
         // when
@@ -133,7 +93,8 @@ class UserCartServiceTest {
         });
 
         // then
-        verify(productRepository, times(1)).findById(1000L);
+        verify(productRepository, times(1)).findPriceById(1000L);
+        verify(userCartRespository, never()).addQuantity(anyLong(), anyLong(), anyInt());
     }
 
 
@@ -149,7 +110,7 @@ class UserCartServiceTest {
         BigDecimal mockTotalPrice = new BigDecimal("15");
 
         given(this.userCartRespository.findItemsByUserid(1L)).willReturn(carts);
-        given(this.userCartRespository.calculateTotalPriceByUserId(1L)).willReturn(mockTotalPrice);
+        given(this.cartTotalService.getTotal(1L)).willReturn(mockTotalPrice);
 
         //when
         CartResponse actual = this.userCartService.getCartByUserId(1L);
@@ -161,6 +122,7 @@ class UserCartServiceTest {
         assertThat(actual.totalPrice()).isEqualTo(mockTotalPrice);
 
         verify(this.userCartRespository, times(1)).findItemsByUserid(1L);
+        verify(this.userCartRespository, never()).calculateTotalPriceByUserId(1L);
     }
 
     @Test
@@ -184,6 +146,7 @@ class UserCartServiceTest {
 
         given(userCartRespository.findByIdAndUserId(1L, 1L)).willReturn(Optional.of(cart));
         given(userCartRespository.save(cart)).willReturn(updatedCart);
+        given(productRepository.findPriceById(1L)).willReturn(Optional.of(new BigDecimal("100")));
 
 
         // when
@@ -197,6 +160,8 @@ class UserCartServiceTest {
         assertEquals(1L, savedCart.getUserId());
         assertEquals(1L, savedCart.getProductId());
         assertEquals(5, savedCart.getQuantity());
+
+        verify(cartTotalService).apply(1L, new BigDecimal("400"));
     }
 
     @Test
@@ -231,6 +196,7 @@ class UserCartServiceTest {
 
         given(userCartRespository.findByIdAndUserId(1L, 1L)).willReturn(Optional.of(cart));
         doNothing().when(userCartRespository).deleteById(1L);
+        given(productRepository.findPriceById(1L)).willReturn(Optional.of(new BigDecimal("100")));
 
         // when
         userCartService.removeCartItem(1l, userDetail);
@@ -239,6 +205,7 @@ class UserCartServiceTest {
         verify(userCartRespository, times(1)).findByIdAndUserId(1L, 1L);
 
         verify(userCartRespository, times(1)).deleteById(1L);
+        verify(cartTotalService).apply(1L, new BigDecimal("-100"));
     }
 
     @Test
@@ -258,4 +225,81 @@ class UserCartServiceTest {
 
         verify(userCartRespository, never()).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyBatch_withMixedOperations_writesNetResultAndAdjustsTotalOnce() {
+        //given
+        Cart first = Cart.builder().id(1L).userId(1L).productId(1L).quantity(1).build();
+        Cart second = Cart.builder().id(2L).userId(1L).productId(2L).quantity(2).build();
+        CartBatchRequest body = new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.ADD, 3L, null, 2),
+                new CartOperation(CartOperation.Type.ADD, 1L, null, null),
+                new CartOperation(CartOperation.Type.SET_QUANTITY, null, 1L, 4),
+                new CartOperation(CartOperation.Type.REMOVE, null, 2L, null)));
+
+        given(userCartRespository.findAllByUserId(1L)).willReturn(List.of(first, second));
+        given(productRepository.findPricesByIdIn(Set.of(1L, 2L, 3L))).willReturn(List.of(
+                price(1L, "100"), price(2L, "50"), price(3L, "10")));
+
+        //when
+        userCartService.applyBatch(body, userDetail);
+
+        //then
+        assertThat(first.getQuantity()).isEqualTo(4);
+        verify(userCartRespository).deleteAllByIdInBatch(List.of(2L));
+        verify(userCartRespository).addQuantities(1L, Map.of(3L, 2));
+        //(4 - 1) * 100 - 2 * 50 + 2 * 10
+        verify(cartTotalService).apply(1L, new BigDecimal("220"));
+        verify(userCartRespository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void applyBatch_withLineRemovedEarlierInBatch_throwsNotFoundExceptionAndWritesNothing() {
+        //given
+        Cart line = Cart.builder().id(1L).userId(1L).productId(1L).quantity(1).build();
+        CartBatchRequest body = new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.REMOVE, null, 1L, null),
+                new CartOperation(CartOperation.Type.SET_QUANTITY, null, 1L, 3)));
+
+        given(userCartRespository.findAllByUserId(1L)).willReturn(List.of(line));
+
+        //when
+        assertThrows(NotFoundException.class, () -> userCartService.applyBatch(body, userDetail));
+
+        //then
+        assertThat(line.getQuantity()).isEqualTo(1);
+        verify(userCartRespository, never()).deleteAllByIdInBatch(any());
+        verify(userCartRespository, never()).addQuantities(anyLong(), any());
+        verify(cartTotalService, never()).apply(anyLong(), any());
+    }
+
+    @Test
+    void applyBatch_withNotFoundProductId_throwsNotFoundException() {
+        //given
+        CartBatchRequest body = new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.ADD, 1000L, null, null)));
+
+        given(userCartRespository.findAllByUserId(1L)).willReturn(List.of());
+        given(productRepository.findPricesByIdIn(Set.of(1000L))).willReturn(List.of());
+
+        //when
+        assertThrows(NotFoundException.class, () -> userCartService.applyBatch(body, userDetail));
+
+        //then
+        verify(userCartRespository, never()).addQuantities(anyLong(), any());
+    }
+
+    private ProductRepository.PriceView price(long id, String price) {
+        return new ProductRepository.PriceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.dev.e_shop.cart.total;
+
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.UserCartService;
+import com.dev.e_shop.cart.dto.AddItemRequest;
+import com.dev.e_shop.cart.dto.CartBatchRequest;
+import com.dev.e_shop.cart.dto.CartOperation;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.cart.dto.UpdateItemRequest;
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.admin.AdminProductService;
+import com.dev.e_shop.product.dto.UpdateProductRequest;
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class CartTotalIntegrationTest {
+    private static final long USER_ID = 9101L;
+    private static final long OTHER_USER_ID = 9102L;
+
+    @Autowired
+    UserCartService userCartService;
+
+    @Autowired
+    AdminProductService adminProductService;
+
+    @Autowired
+    UserCartRepository userCartRepository;
+
+    @Autowired
+    CartTotalRepository cartTotalRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    ProductFixture products;
+    Product first;
+    Product second;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+        first = products.save("Cart total phone 1", "100.0");
+        second = products.save("Cart total phone 2", "30.0");
+    }
+
+    @AfterEach
+    void tearDown() {
+        List.of(USER_ID, OTHER_USER_ID).forEach(userId -> {
+            userCartRepository.deleteAll(userCartRepository.findAllByUserId(userId));
+            cartTotalRepository.deleteById(userId);
+        });
+        products.deleteAll();
+    }
+
+    @Test
+    void cartWrites_keepTotalEqualToCartContent() {
+        //given
+        UserDetail user = user(USER_ID);
+
+        //when
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user);
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user);
+        userCartService.addCartItem(new AddItemRequest(second.getId()), user);
+        long secondRowId = userCartRepository.findByProductIdAndUserId(second.getId(), USER_ID).orElseThrow().getId();
+        userCartService.updateQuantityOfItem(new UpdateItemRequest(secondRowId, 4), user);
+        long firstRowId = userCartRepository.findByProductIdAndUserId(first.getId(), USER_ID).orElseThrow().getId();
+        CartResponse actual = userCartService.removeCartItem(firstRowId, user);
+
+        //then
+        assertThat(actual.totalPrice()).isEqualByComparingTo("120.0");
+        assertThat(cartTotalRepository.findById(USER_ID).orElseThrow().getTotalPrice())
+                .isEqualByComparingTo(userCartRepository.calculateTotalPriceByUserId(USER_ID));
+    }
+
+    @Test
+    void updateProduct_withNewPrice_fansOutToCartsHoldingTheProduct() {
+        //given
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user(USER_ID));
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user(USER_ID));
+        userCartService.addCartItem(new AddItemRequest(second.getId()), user(OTHER_USER_ID));
+
+        //when
+        adminProductService.updateProduct(first.getId(), UpdateProductRequest.builder()
+                .price(new BigDecimal("150.0"))
+                .build());
+
+        //then
+        assertThat(userCartService.getCartByUserId(USER_ID).totalPrice()).isEqualByComparingTo("300.0");
+        assertThat(userCartService.getCartByUserId(OTHER_USER_ID).totalPrice()).isEqualByComparingTo("30.0");
+    }
+
+    @Test
+    void getCartByUserId_withCartFromBeforeTotals_sumsTheCart() {
+        //given
+        userCartRepository.save(Cart.builder().userId(USER_ID).productId(second.getId()).quantity(2).build());
+
+        //when
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user(USER_ID));
+
+        //then
+        assertThat(cartTotalRepository.findById(USER_ID).orElseThrow().getTotalPrice())
+                .isEqualByComparingTo("160.0");
+    }
+
+    @Test
+    void applyBatch_withMixedOperations_keepsTotalEqualToCartContent() {
+        //given
+        UserDetail user = user(USER_ID);
+        userCartService.addCartItem(new AddItemRequest(first.getId()), user);
+        long firstRowId = userCartRepository.findByProductIdAndUserId(first.getId(), USER_ID).orElseThrow().getId();
+
+        //when
+        CartResponse actual = userCartService.applyBatch(new CartBatchRequest(List.of(
+                new CartOperation(CartOperation.Type.ADD, second.getId(), null, 3),
+                new CartOperation(CartOperation.Type.SET_QUANTITY, null, firstRowId, 2))), user);
+
+        //then
+        assertThat(actual.carts()).hasSize(2);
+        assertThat(actual.totalPrice()).isEqualByComparingTo("290.0");
+        assertThat(cartTotalRepository.findById(USER_ID).orElseThrow().getTotalPrice())
+                .isEqualByComparingTo(userCartRepository.calculateTotalPriceByUserId(USER_ID));
+    }
+
+    @Test
+    void addCartItem_withConcurrentFirstWrites_createsOneRowHoldingBoth() throws Exception {
+        //given
+        UserDetail user = user(USER_ID);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Product product : List.of(first, second)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                userCartService.addCartItem(new AddItemRequest(product.getId()), user);
+                return null;
+            }));
+        }
+
+        //when
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(cartTotalRepository.findById(USER_ID).orElseThrow().getTotalPrice())
+                .isEqualByComparingTo("130.0");
+    }
+
+    private UserDetail user(long id) {
+        User user = new User();
+        user.setEmail("cart-total-" + id + "@gmail.com");
+        user.setId(id);
+
+        return new UserDetail(user);
+    }
+}
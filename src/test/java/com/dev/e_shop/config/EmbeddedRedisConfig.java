@@ -46,7 +46,7 @@ public class EmbeddedRedisConfig {
 
     @Bean
     @Primary
-    public LettuceConnectionFactory embeddedRedisConnectionFactory() {
+    public LettuceConnectionFactory embeddedRedisConnectionFactory(RedisServer redisServer) {
         return new LettuceConnectionFactory(
                 "localhost", port);
     }
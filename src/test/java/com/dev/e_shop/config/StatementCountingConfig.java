@@ -0,0 +1,96 @@
+package com.dev.e_shop.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Counts the statements sent to the database by one thread, a JDBC batch
+ * counting once. Background jobs on other threads are ignored.
+ */
+@TestConfiguration
+public class StatementCountingConfig {
+    private static final AtomicInteger count = new AtomicInteger();
+    private static volatile Thread countedThread;
+
+    @Bean
+    static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    public static <T> Counted<T> count(Supplier<T> action) {
+        count.set(0);
+        countedThread = Thread.currentThread();
+        try {
+            T result = action.get();
+            return new Counted<>(result, count.get());
+        } finally {
+            countedThread = null;
+        }
+    }
+
+    public record Counted<T>(T result, int statements) { }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+
+        private Connection countingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                            return countingStatement(result, method.getReturnType());
+                        }
+                        return result;
+                    });
+        }
+
+        private Object countingStatement(Object statement, Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && Thread.currentThread() == countedThread) {
+                            count.incrementAndGet();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dev.e_shop.config.cache;
+
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.dto.CartResponse;
+import com.dev.e_shop.dto.PaginationResponse;
+import com.dev.e_shop.product.dto.ProductPreviewResponse;
+import com.dev.e_shop.product.dto.ProductResponse;
+import com.dev.e_shop.user.profile.dto.ProfileResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCacheSerializerTest {
+
+    GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+
+    CompactCacheSerializer serializer = new CompactCacheSerializer(jsonSerializer, 1024);
+
+    @Test
+    void roundTrip_withKnownTypes_returnsEqualValues() {
+        //given
+        List<Object> values = List.of(
+                new ProductResponse(1, "Iphone 16", new BigDecimal("300.0"), "A new phone is...", 1, "Apple", "/#"),
+                new ProductResponse(2, null, null, null, 0, null, null),
+                new ProfileResponse("Ha Noi", "0123456789"),
+                new PaginationResponse(0, 2, 10, 5)
+        );
+
+        //when //then
+        values.forEach(value -> assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value));
+    }
+
+    @Test
+    void roundTrip_withCart_keepsItemsAndTotal() {
+        //given
+        CartResponse cart = new CartResponse(
+                Set.of(new CartDto(1, 10, 2), new CartDto(2, 11, 1)),
+                new BigDecimal("1500.50"));
+
+        //when
+        CartResponse actual = (CartResponse) serializer.deserialize(serializer.serialize(cart));
+
+        //then
+        assertThat(actual.totalPrice()).isEqualTo(cart.totalPrice());
+        assertThat(actual.carts()).extracting(CartDto::getProductId).containsExactlyInAnyOrder(10L, 11L);
+    }
+
+    @Test
+    void serialize_withPaginationPayload_isSmallerThanJson() {
+        //given
+        Map<String, Object> page = paginationPayload(20);
+
+        //when
+        byte[] binary = serializer.serialize(page);
+        byte[] json = jsonSerializer.serialize(page);
+
+        //then
+        assertThat(serializer.deserialize(binary)).isEqualTo(page);
+        assertThat(binary.length).isLessThan(json.length / 3);
+    }
+
+    @Test
+    void serialize_aboveThreshold_compressesPayload() {
+        //given
+        Map<String, Object> page = paginationPayload(200);
+        CompactCacheSerializer uncompressed = new CompactCacheSerializer(jsonSerializer, Integer.MAX_VALUE);
+
+        //when
+        byte[] compressed = serializer.serialize(page);
+
+        //then
+        assertThat(compressed.length).isLessThan(uncompressed.serialize(page).length);
+        assertThat(serializer.deserialize(compressed)).isEqualTo(page);
+    }
+
+    @Test
+    void deserialize_withJsonValue_readsItThroughFallback() {
+        //given
+        ProductResponse product = new ProductResponse(1, "Iphone 16", new BigDecimal("300.0"), "A new phone is...", 1, "Apple", "/#");
+
+        //when
+        Object actual = serializer.deserialize(jsonSerializer.serialize(product));
+
+        //then
+        assertThat(actual).isEqualTo(product);
+    }
+
+    @Test
+    void serialize_withUnknownType_writesJson() {
+        //given
+        Note value = new Note("Iphone 16");
+
+        //when
+        byte[] actual = serializer.serialize(value);
+
+        //then
+        assertThat(actual[0]).isNotEqualTo(CompactCacheSerializer.MAGIC);
+        assertThat(serializer.deserialize(actual)).isEqualTo(value);
+    }
+
+    private Map<String, Object> paginationPayload(int size) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("products", IntStream.range(0, size)
+                .mapToObj(i -> new ProductPreviewResponse(i, "Iphone " + i, new BigDecimal("300.00")))
+                .toList());
+        data.put("pagination", new PaginationResponse(0, 10, size * 10L, size));
+
+        return data;
+    }
+
+    record Note(String text) { }
+}
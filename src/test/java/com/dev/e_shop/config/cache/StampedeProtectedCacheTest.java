@@ -0,0 +1,151 @@
+package com.dev.e_shop.config.cache;
+
+import com.dev.e_shop.exception.custom.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StampedeProtectedCacheTest {
+
+    @Test
+    void get_withConcurrentMisses_loadsValueOnce() throws Exception {
+        //given
+        StampedeProtectedCache cache = new StampedeProtectedCache(
+                new ConcurrentMapCache("product"), Duration.ofMinutes(60), 1.0, Runnable::run, true);
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "Iphone 16";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+
+        //when
+        try {
+            results.add(executor.submit(() -> cache.get(1L, loader)));
+            loading.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get(1L, loader)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            //then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Iphone 16");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenExpiryIsNear_refreshesBeforeTtl() {
+        //given
+        StampedeProtectedCache cache = new StampedeProtectedCache(
+                new ConcurrentMapCache("products"), Duration.ofMinutes(60), 1e12, Runnable::run, true);
+
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Integer> loader = () -> {
+            Thread.sleep(1);
+            return loads.incrementAndGet();
+        };
+        cache.get("page:0:0:5", loader);
+
+        //when
+        Integer actual = cache.get("page:0:0:5", loader);
+
+        //then
+        assertThat(actual).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.get("page:0:0:5").get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_whenLoaderFails_rethrowsCauseAndCachesNothing() {
+        //given
+        Cache delegate = new ConcurrentMapCache("product");
+        StampedeProtectedCache cache = new StampedeProtectedCache(delegate, Duration.ofMinutes(60), 1.0, Runnable::run, true);
+
+        //when
+        Cache.ValueRetrievalException actual = assertThrows(Cache.ValueRetrievalException.class, () ->
+                cache.get(1L, () -> {
+                    throw new NotFoundException("Product with ID 1 not found");
+                }));
+
+        //then
+        assertThat(actual.getCause()).isInstanceOf(NotFoundException.class);
+        assertThat(delegate.get(1L)).isNull();
+    }
+
+    @Test
+    void get_whenEvictedDuringLoad_doesNotCacheLoadedValue() {
+        //given
+        Cache delegate = new ConcurrentMapCache("cart");
+        StampedeProtectedCache cache = new StampedeProtectedCache(delegate, Duration.ofMinutes(30), 1.0, Runnable::run, false);
+
+        //when
+        String actual = cache.get(1L, () -> {
+            cache.evict(1L);
+            return "old cart";
+        });
+
+        //then
+        assertThat(actual).isEqualTo("old cart");
+        assertThat(delegate.get(1L)).isNull();
+    }
+
+    @Test
+    void get_whenPutDuringLoad_keepsPutValue() {
+        //given
+        Cache delegate = new ConcurrentMapCache("cart");
+        StampedeProtectedCache cache = new StampedeProtectedCache(delegate, Duration.ofMinutes(30), 1.0, Runnable::run, false);
+
+        //when
+        cache.get(1L, () -> {
+            cache.put(1L, "new cart");
+            return "old cart";
+        });
+
+        //then
+        assertThat(delegate.get(1L).get()).isEqualTo("new cart");
+    }
+
+    @Test
+    void get_withEarlyRefreshDisabled_neverReloadsCachedValue() {
+        //given
+        StampedeProtectedCache cache = new StampedeProtectedCache(
+                new ConcurrentMapCache("cart"), Duration.ofMinutes(30), 1e12, Runnable::run, false);
+
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Integer> loader = () -> {
+            Thread.sleep(1);
+            return loads.incrementAndGet();
+        };
+        cache.get(1L, loader);
+
+        //when
+        Integer actual = cache.get(1L, loader);
+
+        //then
+        assertThat(actual).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+}
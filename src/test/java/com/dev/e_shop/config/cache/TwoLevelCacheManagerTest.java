@@ -0,0 +1,94 @@
+package com.dev.e_shop.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    CacheInvalidationPublisher invalidationPublisher;
+
+    ConcurrentMapCacheManager remoteCacheManager;
+
+    TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("product", "cart");
+        cacheManager = new TwoLevelCacheManager(
+                remoteCacheManager,
+                Set.of("product"),
+                100,
+                Duration.ofMinutes(5),
+                invalidationPublisher);
+    }
+
+    @Test
+    void getCache_withNearCacheName_returnsTwoLevelCache() {
+        assertThat(cacheManager.getCache("product")).isInstanceOf(TwoLevelCache.class);
+        assertThat(cacheManager.getCache("cart")).isSameAs(remoteCacheManager.getCache("cart"));
+    }
+
+    @Test
+    void get_whenLoadedOnce_servesLaterReadsFromLocalCache() {
+        //given
+        Cache cache = cacheManager.getCache("product");
+        remoteCacheManager.getCache("product").put(1L, "Iphone 16");
+
+        //when
+        cache.get(1L);
+        remoteCacheManager.getCache("product").evict(1L);
+
+        //then
+        assertThat(cache.get(1L).get()).isEqualTo("Iphone 16");
+    }
+
+    @Test
+    void evict_withCachedKey_removesBothLevelsAndNotifiesOtherNodes() {
+        //given
+        Cache cache = cacheManager.getCache("product");
+        remoteCacheManager.getCache("product").put(1L, "Iphone 16");
+        cache.get(1L);
+
+        //when
+        cache.evict(1L);
+
+        //then
+        assertThat(cache.get(1L)).isNull();
+        verify(invalidationPublisher).publishEvict("product", "1");
+    }
+
+    @Test
+    void onMessage_fromOtherNode_evictsLocalCopy() {
+        //given
+        given(invalidationPublisher.getNodeId()).willReturn("node-a");
+
+        Cache cache = cacheManager.getCache("product");
+        remoteCacheManager.getCache("product").put(1L, "Iphone 16");
+        cache.get(1L);
+        remoteCacheManager.getCache("product").put(1L, "Iphone 16 pro");
+
+        //when
+        cacheManager.onMessage(new DefaultMessage(
+                "cache:invalidation".getBytes(StandardCharsets.UTF_8),
+                "E|node-b|product|1".getBytes(StandardCharsets.UTF_8)), null);
+
+        //then
+        assertThat(cache.get(1L).get()).isEqualTo("Iphone 16 pro");
+    }
+}
@@ -5,8 +5,13 @@ import com.dev.e_shop.order.Order;
 import com.dev.e_shop.order.OrderRepository;
 import com.dev.e_shop.order.dto.OrderResponse;
 import com.dev.e_shop.order.dto.UpdatedOrderRequest;
+import com.dev.e_shop.order.event.OrderStatusChangedEvent;
+import com.dev.e_shop.order.item.OrderItem;
+import com.dev.e_shop.order.item.OrderItemRepository;
 import com.dev.e_shop.order.mapper.OrderMapper;
+import com.dev.e_shop.order.reservation.StockReservationService;
 import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +34,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class AdminOrderServiceTest {
@@ -39,9 +46,18 @@ class AdminOrderServiceTest {
     @Mock
     OrderRepository orderRepository;
 
+    @Mock
+    OrderItemRepository orderItemRepository;
+
     @Mock
     OrderMapper orderMapper;
 
+    @Mock
+    StockReservationService stockReservationService;
+
+    @Mock
+    OutboxPublisher outboxPublisher;
+
     UpdatedOrderRequest updatedOrderRequest;
 
     @BeforeEach
@@ -77,6 +93,110 @@ class AdminOrderServiceTest {
         assertThat(actual.status()).isEqualTo(OrderStatus.SHIPPED.name());
     }
 
+    @Test
+    void updateOrderState_toCancelled_releasesReservedStock() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PENDING);
+
+        given(orderRepository.findById(1L)).willReturn(Optional.of(order));
+        given(orderRepository.save(order)).willReturn(order);
+        given(orderMapper.toOrderResponse(order)).willReturn(new OrderResponse(1L,
+                OrderStatus.CANCELLED.name(),
+                BigDecimal.valueOf(5000),
+                LocalDateTime.parse("2025-05-01T10:00:00")));
+
+        //when
+        this.adminOrderService.updateOrderState(new UpdatedOrderRequest(1L, OrderStatus.CANCELLED));
+
+        //then
+        verify(stockReservationService).release(1L);
+        verify(stockReservationService, never()).confirm(1L);
+        verify(outboxPublisher).record("order", 1L, "OrderStatusChanged",
+                new OrderStatusChangedEvent(1L, OrderStatus.PENDING, OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void updateOrderState_toPaid_keepsReservedStock() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PENDING);
+
+        given(orderRepository.findById(1L)).willReturn(Optional.of(order));
+        given(orderRepository.save(order)).willReturn(order);
+        given(orderMapper.toOrderResponse(order)).willReturn(new OrderResponse(1L,
+                OrderStatus.PAID.name(),
+                BigDecimal.valueOf(5000),
+                LocalDateTime.parse("2025-05-01T10:00:00")));
+
+        //when
+        this.adminOrderService.updateOrderState(new UpdatedOrderRequest(1L, OrderStatus.PAID));
+
+        //then
+        verify(stockReservationService).confirm(1L);
+        verify(stockReservationService, never()).release(1L);
+    }
+
+    @Test
+    void updateOrderState_fromPaidToCancelled_restoresStockFromItems() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PAID);
+
+        OrderItem apple = new OrderItem();
+        apple.setProductId(1L);
+        apple.setQuantity(2);
+
+        given(orderRepository.findById(1L)).willReturn(Optional.of(order));
+        given(orderRepository.save(order)).willReturn(order);
+        given(orderMapper.toOrderResponse(order)).willReturn(new OrderResponse(1L,
+                OrderStatus.CANCELLED.name(),
+                BigDecimal.valueOf(5000),
+                LocalDateTime.parse("2025-05-01T10:00:00")));
+        given(orderItemRepository.findAllByOrderId(1L)).willReturn(List.of(apple));
+
+        //when
+        this.adminOrderService.updateOrderState(new UpdatedOrderRequest(1L, OrderStatus.CANCELLED));
+
+        //then
+        verify(stockReservationService).restore(Map.of(1L, 2));
+        verify(stockReservationService, never()).release(1L);
+    }
+
+    @Test
+    void updateOrderState_fromCancelled_reservesStockAgain() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.CANCELLED);
+
+        OrderItem apple = new OrderItem();
+        apple.setProductId(1L);
+        apple.setQuantity(2);
+
+        OrderItem banana = new OrderItem();
+        banana.setProductId(2L);
+        banana.setQuantity(1);
+
+        given(orderRepository.findById(1L)).willReturn(Optional.of(order));
+        given(orderRepository.save(order)).willReturn(order);
+        given(orderMapper.toOrderResponse(order)).willReturn(new OrderResponse(1L,
+                OrderStatus.PENDING.name(),
+                BigDecimal.valueOf(5000),
+                LocalDateTime.parse("2025-05-01T10:00:00")));
+        given(orderItemRepository.findAllByOrderId(1L)).willReturn(List.of(apple, banana));
+
+        //when
+        this.adminOrderService.updateOrderState(new UpdatedOrderRequest(1L, OrderStatus.PENDING));
+
+        //then
+        verify(stockReservationService).reserve(1L, Map.of(1L, 2, 2L, 1));
+        verify(stockReservationService, never()).confirm(1L);
+    }
+
     @Test
     void updateOrderState_withNonOrderId_throwsNotFoundException() {
         //given
@@ -0,0 +1,187 @@
+package com.dev.e_shop.order.checkout;
+
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.admin.AdminOrderService;
+import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.order.dto.OrderResponse;
+import com.dev.e_shop.order.dto.UpdatedOrderRequest;
+import com.dev.e_shop.order.item.OrderItemRepository;
+import com.dev.e_shop.order.reservation.StockReservationRepository;
+import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.order.user.UserOrderService;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class CheckoutWorkerIntegrationTest {
+    static final long USER_ID = 77L;
+
+    @Autowired
+    UserOrderService userOrderService;
+
+    @Autowired
+    AdminOrderService adminOrderService;
+
+    @Autowired
+    CheckoutOutboxRepository checkoutOutboxRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    UserCartRepository userCartRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderItemRepository orderItemRepository;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    CheckoutWorker checkoutWorker;
+    UserDetail userDetail;
+    ProductFixture products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+        checkoutWorker = new CheckoutWorker(userOrderService, checkoutOutboxRepository, true, 50, 2, 2);
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setEmail("async@gmail.com");
+        user.setPassword("password");
+        userDetail = new UserDetail(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkoutWorker.shutdown();
+        checkoutOutboxRepository.deleteAll();
+        stockReservationRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        userCartRepository.deleteAll();
+        products.deleteAll();
+    }
+
+    @Test
+    void drain_withQueuedOrder_placesItemsAndReservesStock() {
+        //given
+        Product product = products.save("Async phone", 5);
+        OrderResponse accepted = userOrderService.enqueue(userDetail, fillCart(product, 2));
+
+        assertThat(userOrderService.getOrderDetail(userDetail, accepted.id(), 0, 10)).containsEntry("processing", true);
+
+        //when
+        int drained = checkoutWorker.drain();
+
+        //then
+        assertThat(drained).isEqualTo(1);
+        assertThat(productRepository.findStockById(product.getId())).contains(3);
+        assertThat(orderItemRepository.findAllByOrderId(PageRequest.of(0, 10), accepted.id())).hasSize(1);
+        assertThat(orderRepository.findById(accepted.id()).orElseThrow().getTotalAmount())
+                .isEqualByComparingTo("600.0");
+
+        Map<String, Object> detail = userOrderService.getOrderDetail(userDetail, accepted.id(), 0, 10);
+        assertThat(detail).containsEntry("processing", false);
+        assertThat(userCartRepository.findItemsByUserid(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void drain_withoutEnoughStock_cancelsOrderAndKeepsCart() {
+        //given
+        Product product = products.save("Sold out async phone", 1);
+        OrderResponse accepted = userOrderService.enqueue(userDetail, fillCart(product, 2));
+
+        //when
+        checkoutWorker.drain();
+
+        //then
+        assertThat(orderRepository.findById(accepted.id()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(productRepository.findStockById(product.getId())).contains(1);
+        assertThat(checkoutOutboxRepository.existsByOrderId(accepted.id())).isFalse();
+        assertThat(userCartRepository.findItemsByUserid(USER_ID)).hasSize(1);
+    }
+
+    @Test
+    void drain_withOrderCancelledWhileQueued_keepsCartAndStock() {
+        //given
+        Product product = products.save("Cancelled async phone", 5);
+        OrderResponse accepted = userOrderService.enqueue(userDetail, fillCart(product, 2));
+        adminOrderService.updateOrderState(new UpdatedOrderRequest(accepted.id(), OrderStatus.CANCELLED));
+
+        //when
+        checkoutWorker.drain();
+
+        //then
+        assertThat(orderRepository.findById(accepted.id()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(checkoutOutboxRepository.existsByOrderId(accepted.id())).isFalse();
+        assertThat(orderItemRepository.findAllByOrderId(accepted.id())).isEmpty();
+        assertThat(stockReservationRepository.findAllByOrderId(accepted.id())).isEmpty();
+        assertThat(productRepository.findStockById(product.getId())).contains(5);
+        assertThat(userCartRepository.findItemsByUserid(USER_ID)).hasSize(1);
+    }
+
+    @Test
+    void failQueued_afterMaxAttempts_cancelsOrder() {
+        //given
+        Product product = products.save("Failing async phone", 5);
+        OrderResponse accepted = userOrderService.enqueue(userDetail, fillCart(product, 1));
+        long entryId = checkoutOutboxRepository.findQueuedIds(Limit.of(1)).get(0);
+
+        //when
+        userOrderService.failQueued(entryId, "java.lang.IllegalStateException: boom", 2);
+
+        //then
+        CheckoutOutbox entry = checkoutOutboxRepository.findById(entryId).orElseThrow();
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getLastError()).contains("boom");
+        assertThat(orderRepository.findById(accepted.id()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+
+        //when
+        userOrderService.failQueued(entryId, "java.lang.IllegalStateException: boom", 2);
+
+        //then
+        assertThat(checkoutOutboxRepository.existsById(entryId)).isFalse();
+        assertThat(orderRepository.findById(accepted.id()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(productRepository.findStockById(product.getId())).contains(5);
+    }
+
+    private OrderRequest fillCart(Product product, int quantity) {
+        Cart cart = userCartRepository.save(Cart.builder()
+                .userId(USER_ID)
+                .productId(product.getId())
+                .quantity(quantity)
+                .build());
+
+        return new OrderRequest(List.of(new CartDto(cart.getId(), cart.getProductId(), cart.getQuantity())));
+    }
+}
@@ -0,0 +1,43 @@
+package com.dev.e_shop.order.item;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+@Transactional
+class OrderItemRepositoryIntegrationTest {
+
+    @Autowired
+    OrderItemRepository orderItemRepository;
+
+    @Test
+    void insertAll_withItems_storesEveryItemOfTheOrder() {
+        //given
+        List<OrderItem> items = List.of(
+                OrderItem.builder().orderId(99L).productId(1L).productName("Iphone 16").price(new BigDecimal("300.00")).quantity(1).build(),
+                OrderItem.builder().orderId(99L).productId(2L).productName("Galaxy S25").price(new BigDecimal("250.00")).quantity(3).build());
+
+        //when
+        orderItemRepository.insertAll(items);
+
+        //then
+        List<OrderItem> actual = orderItemRepository.findAllByOrderId(PageRequest.of(0, 10), 99L).getContent();
+        assertThat(actual).extracting(OrderItem::getProductName).containsExactlyInAnyOrder("Iphone 16", "Galaxy S25");
+        assertThat(actual).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+    }
+}
@@ -0,0 +1,234 @@
+package com.dev.e_shop.order.reservation;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.exception.custom.InsufficientStockException;
+import com.dev.e_shop.order.Order;
+import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.admin.AdminOrderService;
+import com.dev.e_shop.order.dto.UpdatedOrderRequest;
+import com.dev.e_shop.order.item.OrderItem;
+import com.dev.e_shop.order.item.OrderItemRepository;
+import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class StockReservationServiceIntegrationTest {
+
+    @Autowired
+    StockReservationService stockReservationService;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderItemRepository orderItemRepository;
+
+    @Autowired
+    AdminOrderService adminOrderService;
+
+    ProductFixture products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockReservationRepository.deleteAll();
+        products.deleteAll();
+    }
+
+    @Test
+    void reserve_withEnoughStock_decrementsStockAndReleaseRestoresItOnce() {
+        //given
+        Product first = products.save("Reserved phone 1", 10);
+        Product second = products.save("Reserved phone 2", 4);
+
+        //when
+        stockReservationService.reserve(1L, Map.of(first.getId(), 3, second.getId(), 4));
+
+        //then
+        assertThat(productRepository.findStockById(first.getId())).contains(7);
+        assertThat(productRepository.findStockById(second.getId())).contains(0);
+
+        //when
+        stockReservationService.release(1L);
+        stockReservationService.release(1L);
+
+        //then
+        assertThat(productRepository.findStockById(first.getId())).contains(10);
+        assertThat(productRepository.findStockById(second.getId())).contains(4);
+        assertThat(stockReservationRepository.findAllByOrderId(1L)).isEmpty();
+    }
+
+    @Test
+    void reserve_withOneItemShort_takesNothing() {
+        //given
+        Product first = products.save("Reserved phone 1", 10);
+        Product second = products.save("Reserved phone 2", 1);
+
+        //when
+        assertThrows(InsufficientStockException.class, () -> {
+            stockReservationService.reserve(1L, Map.of(first.getId(), 3, second.getId(), 2));
+        });
+
+        //then
+        assertThat(productRepository.findStockById(first.getId())).contains(10);
+        assertThat(productRepository.findStockById(second.getId())).contains(1);
+        assertThat(stockReservationRepository.findAllByOrderId(1L)).isEmpty();
+    }
+
+    @Test
+    void reserve_withFlashSaleOnOneProduct_neverOversells() throws Exception {
+        //given
+        Product product = products.save("Flash sale phone", 5);
+        int buyers = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (long orderId = 1; orderId <= buyers; orderId++) {
+            long id = orderId;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    stockReservationService.reserve(id, Map.of(product.getId(), 1));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException ignored) {
+                }
+                return null;
+            }));
+        }
+
+        //when
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(sold.get()).isEqualTo(5);
+        assertThat(productRepository.findStockById(product.getId())).contains(0);
+        assertThat(stockReservationRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void expire_withPendingOrder_cancelsOrderAndRestoresStock() {
+        //given
+        Product product = products.save("Reserved phone", 10);
+
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setTotalAmount(BigDecimal.valueOf(300));
+        Order savedOrder = orderRepository.save(order);
+
+        stockReservationService.reserve(savedOrder.getId(), Map.of(product.getId(), 2));
+
+        //when
+        stockReservationService.expire(savedOrder.getId());
+
+        //then
+        assertThat(orderRepository.findById(savedOrder.getId()).get().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(productRepository.findStockById(product.getId())).contains(10);
+
+        orderRepository.delete(savedOrder);
+    }
+
+    @Test
+    void expire_withCancelledOrder_restoresStock() {
+        //given
+        Product product = products.save("Reserved phone", 10);
+
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setTotalAmount(BigDecimal.valueOf(300));
+        Order savedOrder = orderRepository.save(order);
+
+        stockReservationService.reserve(savedOrder.getId(), Map.of(product.getId(), 2));
+        savedOrder.setStatus(OrderStatus.CANCELLED);
+        orderRepository.save(savedOrder);
+
+        //when
+        stockReservationService.expire(savedOrder.getId());
+
+        //then
+        assertThat(productRepository.findStockById(product.getId())).contains(10);
+        assertThat(stockReservationRepository.findAllByOrderId(savedOrder.getId())).isEmpty();
+
+        orderRepository.delete(savedOrder);
+    }
+
+    @Test
+    void updateOrderState_cancellingPaidOrderThenReopening_takesStockOnce() {
+        //given
+        Product product = products.save("Reopened phone", 10);
+
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setTotalAmount(BigDecimal.valueOf(600));
+        Order savedOrder = orderRepository.save(order);
+        OrderItem item = orderItemRepository.save(OrderItem.builder()
+                .orderId(savedOrder.getId())
+                .productId(product.getId())
+                .productName(product.getName())
+                .price(product.getPrice())
+                .quantity(2)
+                .build());
+
+        stockReservationService.reserve(savedOrder.getId(), Map.of(product.getId(), 2));
+
+        //when
+        adminOrderService.updateOrderState(new UpdatedOrderRequest(savedOrder.getId(), OrderStatus.PAID));
+
+        //then
+        assertThat(productRepository.findStockById(product.getId())).contains(8);
+
+        //when
+        adminOrderService.updateOrderState(new UpdatedOrderRequest(savedOrder.getId(), OrderStatus.CANCELLED));
+
+        //then
+        assertThat(productRepository.findStockById(product.getId())).contains(10);
+
+        //when
+        adminOrderService.updateOrderState(new UpdatedOrderRequest(savedOrder.getId(), OrderStatus.PENDING));
+
+        //then
+        assertThat(productRepository.findStockById(product.getId())).contains(8);
+        assertThat(stockReservationRepository.findAllByOrderId(savedOrder.getId())).hasSize(1);
+
+        orderItemRepository.delete(item);
+        orderRepository.delete(savedOrder);
+    }
+}
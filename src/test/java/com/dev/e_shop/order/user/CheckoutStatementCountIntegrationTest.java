@@ -0,0 +1,130 @@
+package com.dev.e_shop.order.user;
+
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.UserCartRepository;
+import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.config.StatementCountingConfig;
+import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.dto.OrderRequest;
+import com.dev.e_shop.order.dto.OrderResponse;
+import com.dev.e_shop.order.item.OrderItemRepository;
+import com.dev.e_shop.order.reservation.StockReservationRepository;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.user.User;
+import com.dev.e_shop.user.UserDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({EmbeddedRedisConfig.class, StatementCountingConfig.class})
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class CheckoutStatementCountIntegrationTest {
+    static final long USER_ID = 42L;
+
+    @Autowired
+    UserOrderService userOrderService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    UserCartRepository userCartRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderItemRepository orderItemRepository;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    List<Product> products = new ArrayList<>();
+    UserDetail userDetail;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setEmail("checkout@gmail.com");
+        user.setPassword("password");
+        userDetail = new UserDetail(user);
+
+        products.addAll(productRepository.saveAll(IntStream.range(0, 31)
+                .mapToObj(i -> Product.builder()
+                        .name("Checkout phone " + i)
+                        .price(new BigDecimal("300.0"))
+                        .categoryId(1)
+                        .brand("Apple")
+                        .stock(100)
+                        .build())
+                .toList()));
+
+        //fetches the first id blocks, so the measured checkouts only hit the database for their own rows
+        userOrderService.create(userDetail, fillCart(products.subList(0, 1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockReservationRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        userCartRepository.deleteAll();
+        productRepository.deleteAll(products);
+        products.clear();
+    }
+
+    @Test
+    void create_withMoreItems_sendsSameNumberOfStatements() {
+        //given
+        //a cart holds one line per product
+        OrderRequest singleItem = fillCart(products.subList(30, 31));
+        OrderRequest thirtyItems = fillCart(products.subList(0, 30));
+
+        //when
+        StatementCountingConfig.Counted<OrderResponse> single =
+                StatementCountingConfig.count(() -> userOrderService.create(userDetail, singleItem));
+        StatementCountingConfig.Counted<OrderResponse> thirty =
+                StatementCountingConfig.count(() -> userOrderService.create(userDetail, thirtyItems));
+
+        //then
+        assertThat(thirty.statements()).isEqualTo(single.statements());
+        assertThat(thirty.statements()).isLessThanOrEqualTo(10);
+        assertThat(stockReservationRepository.findAllByOrderId(thirty.result().id())).hasSize(30);
+        //the other cart lines were still there when the single item was ordered
+        assertThat(single.result().totalAmount()).isEqualByComparingTo("300.0");
+        assertThat(thirty.result().totalAmount()).isEqualByComparingTo("9000.0");
+        assertThat(userCartRepository.findItemsByUserid(USER_ID)).isEmpty();
+    }
+
+    private OrderRequest fillCart(List<Product> cartProducts) {
+        List<Cart> carts = userCartRepository.saveAll(cartProducts
+                .stream()
+                .map(product -> Cart.builder()
+                        .userId(USER_ID)
+                        .productId(product.getId())
+                        .quantity(1)
+                        .build())
+                .toList());
+
+        return new OrderRequest(carts.stream()
+                .map(cart -> new CartDto(cart.getId(), cart.getProductId(), cart.getQuantity()))
+                .toList());
+    }
+}
@@ -130,6 +130,29 @@ class UserOrderControllerTest {
                 .andExpect(jsonPath("$.path").value("/api/user/orders/"));
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = {"USER"})
+    void create_withOnlyCartLineIds_isAccepted() throws Exception {
+        //given
+        String json = "{\"orderItems\":[{\"id\":1},{\"id\":2}]}";
+
+        OrderResponse orderResponse = new OrderResponse(
+                1L,
+                OrderStatus.PENDING.name(),
+                BigDecimal.valueOf(5000),
+                LocalDateTime.parse("2025-05-01T10:00:00"));
+
+        given(this.orderService.create(any(UserDetail.class), any(OrderRequest.class)))
+                .willReturn(orderResponse);
+
+        //when and then
+        this.mockMvc.perform(post("/api/user/orders/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(201));
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = {"USER"})
     void getOrdersByPagination_WithLimit2_ReturnsOrderResponses() throws Exception {
@@ -205,7 +228,7 @@ class UserOrderControllerTest {
         data.put("orderItems", orderResponses);
         data.put("pagination", infoPage);
 
-        given(this.orderService.getOrderDetail(1L,page, size))
+        given(this.orderService.getOrderDetail(userDetail, 1L, page, size))
                 .willReturn(data);
 
         //when and then
@@ -1,27 +1,37 @@
 package com.dev.e_shop.order.user;
 
+import com.dev.e_shop.cart.Cart;
+import com.dev.e_shop.cart.RedisCartStore;
 import com.dev.e_shop.cart.UserCartRepository;
 import com.dev.e_shop.cart.dto.CartDto;
+import com.dev.e_shop.cart.total.CartTotalService;
 import com.dev.e_shop.dto.PaginationResponse;
 import com.dev.e_shop.exception.custom.CartItemNotFoundException;
+import com.dev.e_shop.exception.custom.NotFoundException;
 import com.dev.e_shop.order.Order;
 import com.dev.e_shop.order.OrderRepository;
+import com.dev.e_shop.order.checkout.CheckoutOutbox;
+import com.dev.e_shop.order.checkout.CheckoutOutboxRepository;
 import com.dev.e_shop.order.dto.OrderRequest;
 import com.dev.e_shop.order.dto.OrderResponse;
 import com.dev.e_shop.order.item.OrderItem;
 import com.dev.e_shop.order.item.OrderItemRepository;
 import com.dev.e_shop.order.item.OrderItemService;
 import com.dev.e_shop.order.mapper.OrderMapper;
+import com.dev.e_shop.order.reservation.StockReservationService;
 import com.dev.e_shop.order.status.OrderStatus;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
 import com.dev.e_shop.user.User;
 import com.dev.e_shop.user.UserDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -29,6 +39,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -36,7 +47,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class UserOrderServiceTest {
@@ -55,12 +67,33 @@ class UserOrderServiceTest {
     @Mock
     ProductRepository productRepository;
 
+    @Mock
+    RedisCartStore redisCartStore;
+
+    @Mock
+    CartTotalService cartTotalService;
+
     @Mock
     OrderItemService orderItemService;
 
     @Mock
     OrderMapper orderMapper;
 
+    @Mock
+    StockReservationService stockReservationService;
+
+    @Mock
+    CheckoutOutboxRepository checkoutOutboxRepository;
+
+    @Mock
+    OutboxPublisher outboxPublisher;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    Clock clock;
+
     private UserDetail userDetail;
 
     @BeforeEach
@@ -173,13 +206,15 @@ class UserOrderServiceTest {
 
         given(this.orderRepository.save(any(Order.class)))
                 .willReturn(order);
-        given(this.userCartRepository.checkAllIdsExist(List.of(1L, 2L), 2, userDetail.getId()))
-                .willReturn(true);
+        given(this.userCartRepository.findAllByIdInAndUserId(Set.of(1L, 2L), userDetail.getId()))
+                .willReturn(List.of(cartRow(1L, 1L, 1), cartRow(2L, 2L, 2)));
+
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("banana");
+        product2.setPrice(BigDecimal.valueOf(500));
 
-        given(this.productRepository.findById(1L)).willReturn(Optional.of(product));
-        given(this.productRepository.findById(2L)).willReturn(Optional.of(product));
-        willDoNothing().given(this.userCartRepository).deleteById(1L);
-        willDoNothing().given(this.userCartRepository).deleteById(2L);
+        given(this.productRepository.findAllById(Set.of(1L, 2L))).willReturn(List.of(product, product2));
         given(this.orderMapper.toOrderResponse(any(Order.class)))
                 .willReturn(response);
         //when
@@ -189,6 +224,15 @@ class UserOrderServiceTest {
         assertThat(actual.id()).isEqualTo(1L);
         assertThat(actual.totalAmount()).isEqualTo(BigDecimal.valueOf(5000));
         assertThat(actual.createAt()).isEqualTo("2025-05-01T10:00:00");
+
+        then(this.stockReservationService).should().reserve(1L, Map.of(1L, 1, 2L, 2));
+        then(this.orderItemRepository).should().insertAll(argThat(items -> items.size() == 2
+                && items.get(1).getProductName().equals("banana")
+                && items.get(1).getQuantity() == 2));
+        then(this.userCartRepository).should().deleteAllByIdInBatch(List.of(1L, 2L));
+        then(this.productRepository).should(never()).findById(anyLong());
+        then(this.orderRepository).should().save(argThat(saved -> saved.getTotalAmount().compareTo(BigDecimal.valueOf(1500)) == 0));
+        then(this.userCartRepository).should(never()).calculateTotalPriceByUserId(anyLong());
     }
 
     @Test
@@ -230,15 +274,39 @@ class UserOrderServiceTest {
 
         OrderRequest orderRequest = new OrderRequest(cartItems);
 
-        given(this.orderRepository.save(any(Order.class)))
-                .willReturn(order);
-        given(this.userCartRepository.checkAllIdsExist(List.of(1L, 2L), 2, userDetail.getId()))
-                .willReturn(false);
+        given(this.userCartRepository.findAllByIdInAndUserId(Set.of(1L, 2L), userDetail.getId()))
+                .willReturn(List.of(cartRow(1L, 1L, 1)));
         //when
         assertThrows(CartItemNotFoundException.class, () -> {
             OrderResponse actual = this.orderService.create(userDetail, orderRequest);
         });
 
+        then(this.orderRepository).should(never()).save(any(Order.class));
+    }
+
+    @Test
+    void create_withTamperedCartLines_usesStoredProductsAndQuantities() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(1L);
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("apple");
+        product.setPrice(BigDecimal.valueOf(500));
+
+        OrderRequest orderRequest = new OrderRequest(List.of(new CartDto(1L, 2L, -5)));
+
+        given(this.userCartRepository.findAllByIdInAndUserId(Set.of(1L), userDetail.getId()))
+                .willReturn(List.of(cartRow(1L, 1L, 3)));
+        given(this.productRepository.findAllById(Set.of(1L))).willReturn(List.of(product));
+        given(this.orderRepository.save(any(Order.class))).willReturn(order);
+        //when
+        this.orderService.create(userDetail, orderRequest);
+        //then
+        then(this.stockReservationService).should().reserve(1L, Map.of(1L, 3));
+        then(this.orderRepository).should().save(argThat(saved -> saved.getTotalAmount().compareTo(BigDecimal.valueOf(1500)) == 0));
     }
 
     @Test
@@ -252,13 +320,90 @@ class UserOrderServiceTest {
         Map<String, Object> data = new HashMap<>();
         data.put("Items", orderItems);
         data.put("Pagination", "pagination-info");
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(userDetail.getId());
+
+        given(this.orderRepository.findById(1L)).willReturn(Optional.of(order));
         given(this.orderItemService.getItemsByOrderId(1L, page, size))
                 .willReturn(data);
         //when
-        Map<String, Object> actual = this.orderService.getOrderDetail(1L, page, size);
+        Map<String, Object> actual = this.orderService.getOrderDetail(userDetail, 1L, page, size);
         //then
         assertThat(actual).isNotNull();
         assertThat(actual.get("Items")).isNotNull();
         assertThat((List<?>) actual.get("Items")).hasSize(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getOrderDetail_ofAnotherUsersOrder_throwsNotFoundException() {
+        //given
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(2L);
+
+        given(this.orderRepository.findById(1L)).willReturn(Optional.of(order));
+        //when
+        assertThrows(NotFoundException.class, () -> this.orderService.getOrderDetail(userDetail, 1L, 0, 2));
+        //then
+        then(this.checkoutOutboxRepository).shouldHaveNoInteractions();
+        then(this.orderItemService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void enqueue_withValidCart_queuesOrderWithoutTouchingProducts() {
+        //given
+        Order order = new Order();
+        order.setId(7L);
+        order.setUserId(1L);
+        order.setTotalAmount(BigDecimal.ZERO);
+
+        OrderRequest orderRequest = new OrderRequest(List.of(new CartDto(1L, 1L, 2)));
+        OrderResponse response = new OrderResponse(7L, OrderStatus.PENDING.name(), BigDecimal.ZERO,
+                LocalDateTime.parse("2025-05-01T10:00:00"));
+
+        given(this.userCartRepository.findAllByIdInAndUserId(Set.of(1L), userDetail.getId()))
+                .willReturn(List.of(cartRow(1L, 1L, 2)));
+        given(this.orderRepository.save(any(Order.class))).willReturn(order);
+        given(this.orderMapper.toOrderResponse(order)).willReturn(response);
+
+        //when
+        OrderResponse actual = this.orderService.enqueue(userDetail, orderRequest);
+
+        //then
+        assertThat(actual.status()).isEqualTo("PENDING");
+        then(this.checkoutOutboxRepository).should().save(argThat(entry -> entry.getOrderId() == 7L
+                && entry.getItems().contains("\"productId\":1")));
+        then(this.productRepository).shouldHaveNoInteractions();
+        then(this.stockReservationService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void completeQueued_whenAnotherWorkerClaimedIt_doesNothing() {
+        //given
+        given(this.checkoutOutboxRepository.findById(3L)).willReturn(Optional.of(CheckoutOutbox.builder()
+                .id(3L)
+                .orderId(7L)
+                .userId(1L)
+                .items("[]")
+                .build()));
+        given(this.checkoutOutboxRepository.claim(3L)).willReturn(0);
+
+        //when
+        this.orderService.completeQueued(3L);
+
+        //then
+        then(this.orderRepository).shouldHaveNoInteractions();
+        then(this.stockReservationService).shouldHaveNoInteractions();
+    }
+
+    private Cart cartRow(long id, long productId, int quantity) {
+        return Cart.builder()
+                .id(id)
+                .userId(userDetail.getId())
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.dev.e_shop.outbox;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.admin.AdminProductService;
+import com.dev.e_shop.product.dto.StockProductDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class OutboxIntegrationTest {
+
+    @Autowired
+    AdminProductService adminProductService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    StringRedisTemplate redisTemplate;
+
+    @Test
+    @Transactional
+    void updateStockById_recordsEventInTheSameTransaction() {
+        //given
+        Product product = productRepository.save(Product.builder()
+                .name("Outbox phone")
+                .price(new BigDecimal("300.0"))
+                .categoryId(1)
+                .brand("Apple")
+                .stock(1)
+                .build());
+
+        //when
+        adminProductService.updateStockById(product.getId(), new StockProductDto(4));
+
+        //then
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getAggregateId().equals(String.valueOf(product.getId())))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getAggregateType()).isEqualTo("product");
+                    assertThat(event.getEventType()).isEqualTo("ProductStockChanged");
+                    assertThat(event.getPayload()).contains("\"delta\":4");
+                });
+    }
+
+    @Test
+    void publish_toRedisStream_appendsEventsInOrderPerAggregateType() {
+        //given
+        String aggregateType = "outbox-test";
+        RedisStreamOutboxSink sink = new RedisStreamOutboxSink(redisTemplate, 100_000);
+
+        //when
+        sink.publish(List.of(event(1L, aggregateType, "Created"), event(2L, aggregateType, "Updated")));
+
+        //then
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(RedisStreamOutboxSink.STREAM_PREFIX + aggregateType, Range.unbounded());
+        assertThat(records).extracting(record -> record.getValue().get("eventType"))
+                .containsExactly("Created", "Updated");
+        assertThat(records.get(0).getValue()).containsEntry("eventId", "1").containsEntry("aggregateId", "9");
+
+        redisTemplate.delete(RedisStreamOutboxSink.STREAM_PREFIX + aggregateType);
+    }
+
+    @Test
+    void publish_pastMaxLen_trimsStream() {
+        //given
+        String aggregateType = "outbox-trim-test";
+        RedisStreamOutboxSink sink = new RedisStreamOutboxSink(redisTemplate, 10);
+
+        //when
+        for (long id = 1; id <= 300; id++) {
+            sink.publish(List.of(event(id, aggregateType, "Updated")));
+        }
+
+        //then
+        assertThat(redisTemplate.opsForStream().size(RedisStreamOutboxSink.STREAM_PREFIX + aggregateType))
+                .isLessThan(300);
+
+        redisTemplate.delete(RedisStreamOutboxSink.STREAM_PREFIX + aggregateType);
+    }
+
+    private OutboxEvent event(long id, String aggregateType, String eventType) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(aggregateType)
+                .aggregateId("9")
+                .eventType(eventType)
+                .payload("{}")
+                .createdAt(Instant.parse("2025-05-01T10:00:00Z"))
+                .build();
+    }
+}
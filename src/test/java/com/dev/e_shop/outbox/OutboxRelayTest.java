@@ -0,0 +1,75 @@
+package com.dev.e_shop.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    OutboxEventRepository outboxEventRepository;
+
+    InMemoryOutboxSink outboxSink = new InMemoryOutboxSink();
+
+    OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, outboxSink, true, 2);
+    }
+
+    @Test
+    void relay_withQueuedEvents_publishesInIdOrderThenDeletesThem() {
+        //given
+        given(outboxEventRepository.findNextBatch(Limit.of(2))).willReturn(List.of(event(1L, "1"), event(2L, "1")));
+
+        //when
+        int actual = outboxRelay.relay();
+
+        //then
+        assertThat(actual).isEqualTo(2);
+        assertThat(outboxSink.getEvents()).extracting(OutboxEvent::getId).containsExactly(1L, 2L);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void relay_whenSinkFails_keepsEventsForTheNextRun() {
+        //given
+        OutboxSink failingSink = events -> {
+            throw new IllegalStateException("Redis is down");
+        };
+        outboxRelay = new OutboxRelay(outboxEventRepository, failingSink, true, 2);
+        given(outboxEventRepository.findNextBatch(Limit.of(2))).willReturn(List.of(event(1L, "1")));
+
+        //when
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relay());
+
+        //then
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private OutboxEvent event(long id, String aggregateId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("order")
+                .aggregateId(aggregateId)
+                .eventType("OrderStatusChanged")
+                .payload("{}")
+                .createdAt(Instant.parse("2025-05-01T10:00:00Z"))
+                .build();
+    }
+}
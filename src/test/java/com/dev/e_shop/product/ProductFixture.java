@@ -0,0 +1,42 @@
+package com.dev.e_shop.product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+//saves products for integration tests and deletes them again afterwards
+public class ProductFixture {
+    private final ProductRepository productRepository;
+    private final List<Product> saved = new ArrayList<>();
+
+    public ProductFixture(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public Product save(String name, int stock) {
+        return save(name, "300.0", stock);
+    }
+
+    public Product save(String name, String price) {
+        return save(name, price, 10);
+    }
+
+    public void deleteAll() {
+        productRepository.deleteAll(saved);
+        saved.clear();
+    }
+
+    private Product save(String name, String price, int stock) {
+        Product product = productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .description("A phone")
+                .brand("Apple")
+                .imgUrl("/#")
+                .stock(stock)
+                .categoryId(1)
+                .build());
+        saved.add(product);
+        return product;
+    }
+}
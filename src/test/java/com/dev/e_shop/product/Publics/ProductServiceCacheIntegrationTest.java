@@ -3,12 +3,14 @@ package com.dev.e_shop.product.Publics;
 import com.dev.e_shop.config.EmbeddedRedisConfig;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.cache.ProductCacheKeys;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.publics.PublicProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -43,15 +45,22 @@ public class ProductServiceCacheIntegrationTest {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductCacheKeys productCacheKeys;
+
     @BeforeEach
     void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         redisTemplate.getConnectionFactory().getConnection().flushAll();
     }
 
     @Test
     void getProductsByPagination_whenCacheHit_returnsProductsFromCache() {
         //given
-        String cacheKey = "products::0:5";
+        String cacheKey = "products::" + productCacheKeys.page(0, 5);
 
         Map<String, Object> data = new HashMap<>();
         data.put("products", List.of());
@@ -71,7 +80,7 @@ public class ProductServiceCacheIntegrationTest {
     @Test
     void getProductsByPagination_whenCacheMiss_returnsProductsFromDb() throws InterruptedException {
         //given
-        String cacheKey = "products::0:5";
+        String cacheKey = "products::" + productCacheKeys.page(0, 5);
         redisTemplate.delete(cacheKey);
 
         //when
@@ -133,7 +142,7 @@ public class ProductServiceCacheIntegrationTest {
     @Test
     void getProductContainByName_whenCacheHit_returnsProductFromCache() {
         //given
-        String cacheKey = "products::0:5:Iphone";
+        String cacheKey = "products::" + productCacheKeys.search("Iphone", 0, 5);
 
         Map<String, Object> data = new HashMap<>();
         data.put("products", List.of());
@@ -154,7 +163,7 @@ public class ProductServiceCacheIntegrationTest {
     @Test
     void getProductContainByName_whenCacheMiss_returnsProductFromDb() {
         //given
-        String cacheKey = "products::0:5:Iphone";
+        String cacheKey = "products::" + productCacheKeys.search("Iphone", 0, 5);
         redisTemplate.delete(cacheKey);
 
         //when
@@ -162,7 +171,8 @@ public class ProductServiceCacheIntegrationTest {
 
         //then
         Map<String, Object> cache = (Map<String, Object>)redisTemplate.opsForValue().get(cacheKey);
-        assertThat(cache).isEqualTo(cache);
-        verify(productRepository, times(1)).findByNameContainingIgnoreCase(eq("Iphone"), any(PageRequest.class));
+        assertThat(cache).isEqualTo(response);
+        verify(productRepository, times(1)).findAllById(anyList());
+        verify(productRepository, never()).findByNameContainingIgnoreCase(eq("Iphone"), any(PageRequest.class));
     }
 }
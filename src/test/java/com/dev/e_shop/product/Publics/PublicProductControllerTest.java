@@ -193,4 +193,23 @@ class PublicProductControllerTest {
                 .andExpect(jsonPath("$.message").value("Resource not found"))
                 .andExpect(jsonPath("$.errors[0]").value("Product with ID 1 not found"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProductsByCursor_withSize2_returnsProductsAndNextCursor() throws Exception {
+        //given
+        Map<String, Object> data = new HashMap<>();
+        data.put("products", List.of(productPreviewResponse1, productPreviewResponse2));
+        data.put("nextCursor", "aWQ6Mg");
+
+        given(this.productService.getProductsByCursor(null, 2)).willReturn(data);
+
+        //when and then
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/public/products/cursor")
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.message").value("Get products success"))
+                .andExpect(jsonPath("$.data.products", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.data.nextCursor").value("aWQ6Mg"));
+    }
+}
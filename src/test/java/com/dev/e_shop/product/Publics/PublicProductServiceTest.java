@@ -1,17 +1,21 @@
 package com.dev.e_shop.product.Publics;
 
 import com.dev.e_shop.dto.PaginationResponse;
+import com.dev.e_shop.exception.custom.InvalidCursorException;
 import com.dev.e_shop.exception.custom.NotFoundException;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.dto.ProductPreviewResponse;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.mapper.ProductMapper;
 import com.dev.e_shop.product.publics.PublicProductService;
+import com.dev.e_shop.product.search.ProductSearchIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -24,7 +28,9 @@ import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -41,6 +47,9 @@ class PublicProductServiceTest {
     @Mock
     ProductMapper productMapper;
 
+    @Mock
+    ProductSearchIndex productSearchIndex;
+
     @Test
     void getProductByPagination_withLimit2_returns2Products() {
         // Given
@@ -190,4 +199,79 @@ class PublicProductServiceTest {
         assertThat(pagination.totalItems()).isEqualTo(products.size());
         assertThat(pagination.pageSize()).isEqualTo(size);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProductsByCursor_withMoreProducts_returnsNextCursor() {
+        //given
+        int size = 2;
+        List<Product> products = List.of(
+                Product.builder().id(1).name("Iphone 15").build(),
+                Product.builder().id(2).name("Iphone 16").build(),
+                Product.builder().id(3).name("Iphone 17").build()
+        );
+
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(size + 1)))
+                .willReturn(products);
+
+        //when
+        Map<String, Object> firstPage = productService.getProductsByCursor(null, size);
+
+        //then
+        assertThat(firstPage).containsKeys("products", "nextCursor");
+        assertThat(((List<?>) firstPage.get("products")).size()).isEqualTo(size);
+        assertThat(firstPage.get("nextCursor")).isNotNull();
+
+        //when
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(size + 1)))
+                .willReturn(List.of(products.get(2)));
+
+        Map<String, Object> lastPage = productService.getProductsByCursor((String) firstPage.get("nextCursor"), size);
+
+        //then
+        assertThat(((List<?>) lastPage.get("products")).size()).isEqualTo(1);
+        assertThat(lastPage.get("nextCursor")).isNull();
+
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getProductsByCursor_withInvalidCursor_throwsInvalidCursorException() {
+        //when
+        assertThrows(InvalidCursorException.class, () -> {
+            productService.getProductsByCursor("not-a-cursor", 2);
+        });
+
+        //then
+        verify(productRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getProductContainByName_withReadyIndex_returnsRankedProductsFromIndex() {
+        //given
+        Product product1 = Product.builder().id(1).name("Iphone 16").build();
+        Product product2 = Product.builder().id(2).name("Iphone 16 pro").build();
+
+        given(productSearchIndex.isReady()).willReturn(true);
+        given(productSearchIndex.search("iphone 16", 0, 2))
+                .willReturn(new ProductSearchIndex.SearchResult(List.of(2L, 1L), 3));
+        given(productRepository.findAllById(List.of(2L, 1L))).willReturn(List.of(product1, product2));
+        given(productMapper.toProductPreviewResponse(any(Product.class)))
+                .willAnswer(invocation -> {
+                    Product product = invocation.getArgument(0);
+                    return new ProductPreviewResponse(product.getId(), product.getName(), product.getPrice());
+                });
+
+        //when
+        Map<String, Object> actual = productService.getProductContainByName("iphone 16", 0, 2);
+
+        //then
+        List<?> products = (List<?>) actual.get("products");
+        assertThat(products).extracting("id").containsExactly(2L, 1L);
+
+        PaginationResponse pagination = (PaginationResponse) actual.get("pagination");
+        assertThat(pagination.totalItems()).isEqualTo(3);
+        assertThat(pagination.totalPage()).isEqualTo(2);
+
+        verify(productRepository, never()).findByNameContainingIgnoreCase(any(String.class), any(Pageable.class));
+    }
+}
@@ -27,6 +27,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -284,6 +286,21 @@ class AdminProductControllerTest {
 
     }
 
+    @Test
+    void adjustStocks_withMissingProductId_returnsBadRequestException() throws Exception {
+        String json = "{\"items\":[{\"delta\":5}]}";
+
+        //when and then
+        this.mockMvc.perform(patch("/api/admin/products/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors['items[0].productId']").value("productId is required"));
+
+        verify(this.productService, never()).adjustStocks(any());
+    }
+
     @Test
     void updateStock_withNotFoundId_returnsNotFoundException() throws Exception {
         StockProductDto body = new StockProductDto(10);
@@ -1,13 +1,22 @@
 package com.dev.e_shop.product.admin;
 
+import com.dev.e_shop.exception.custom.InsufficientStockException;
 import com.dev.e_shop.exception.custom.NotFoundException;
+import com.dev.e_shop.cart.total.CartTotalService;
+import com.dev.e_shop.outbox.OutboxPublisher;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.cache.ProductCacheKeys;
 import com.dev.e_shop.product.dto.CreateProductRequest;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.dto.UpdateProductRequest;
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import com.dev.e_shop.product.dto.StockBatchRequest;
+import com.dev.e_shop.product.dto.StockBatchResponse;
 import com.dev.e_shop.product.dto.StockProductDto;
 import com.dev.e_shop.product.mapper.ProductMapper;
+import com.dev.e_shop.product.search.ProductSearchIndex;
+import com.dev.e_shop.product.stock.HotStockCounter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +45,21 @@ class AdminProductServiceTest {
     @Mock
     ProductMapper productMapper;
 
+    @Mock
+    ProductSearchIndex productSearchIndex;
+
+    @Mock
+    ProductCacheKeys productCacheKeys;
+
+    @Mock
+    HotStockCounter hotStockCounter;
+
+    @Mock
+    OutboxPublisher outboxPublisher;
+
+    @Mock
+    CartTotalService cartTotalService;
+
     @BeforeEach
     void setUp() {
     }
@@ -86,6 +110,7 @@ class AdminProductServiceTest {
         given(productMapper.toProduct(body)).willReturn(product);
         given(productRepository.save(product)).willReturn(savedProduct);
         given(productMapper.toProductResponse(savedProduct)).willReturn(response);
+        given(productCacheKeys.tagsOf(savedProduct)).willReturn(Set.of("page", "search:i", "search:ip"));
 
         // Act
         ProductResponse actual = productService.create(body);
@@ -99,6 +124,8 @@ class AdminProductServiceTest {
         verify(this.productMapper, times(1)).toProduct(body);
         verify(this.productRepository, times(1)).save(product);
         verify(this.productMapper, times(1)).toProductResponse(savedProduct);
+        verify(this.productSearchIndex, times(1)).index(savedProduct);
+        verify(this.productCacheKeys, times(1)).invalidate(Set.of("page", "search:i", "search:ip"));
     }
 
     @Test
@@ -136,6 +163,9 @@ class AdminProductServiceTest {
         given(this.productRepository.save(product)).willReturn(updatedProduct);
         given(this.productMapper.toProductResponse(updatedProduct)).willReturn(response);
 
+        given(this.productCacheKeys.tagsOf(product)).willReturn(Set.of("page", "search:i", "search:ip"));
+        given(this.productCacheKeys.tagsOf(updatedProduct)).willReturn(Set.of("page", "search:i", "search:ip", "search:p", "search:pr"));
+
         //when
         ProductResponse actual = this.productService.updateProduct(1L, body);
 
@@ -149,7 +179,9 @@ class AdminProductServiceTest {
         verify(this.productRepository, times(1)).findById(1L);
         verify(this.productRepository, times(1)).save(product);
         verify(this.productMapper, times(1)).toProductResponse(updatedProduct);
-
+        verify(this.productCacheKeys, times(1))
+                .invalidate(Set.of("page", "search:i", "search:ip", "search:p", "search:pr"));
+        verify(this.cartTotalService, times(1)).reprice(1L, new BigDecimal(100));
     }
 
     @Test
@@ -171,44 +203,61 @@ class AdminProductServiceTest {
     }
 
     @Test
-    void updateStockById_withExistingId_returnsProductResponse() {
+    void updateStockById_withExistingId_returnsUpdatedStock() {
         //given
-        StockProductDto body = new StockProductDto(10);
-        body.setStock(100);
+        StockProductDto body = new StockProductDto(100);
 
-        Product product = Product.builder()
-                        .stock(10)
-                        .build();
+        given(this.productRepository.adjustStock(1L, 100)).willReturn(Optional.of(110));
 
-        ProductResponse response = new ProductResponse(
-                1,
-                "Iphone 16",
-                new BigDecimal("300.0"),
-                "A new phone is...",
-                1,
-                "Apple",
-                "/#"
-        );
+        // When
+        StockProductDto actual = productService.updateStockById(1L, body);
 
+        assertThat(actual.getStock()).isEqualTo(110); // update amount of stock
 
+        //then
+        verify(this.productRepository, never()).findById(anyLong());
+        verify(this.productRepository, never()).findStockById(anyLong());
+        verify(this.productRepository, never()).save(any(Product.class));
+    }
 
-        given(this.productRepository.findById(1L)).willReturn(Optional.of(product));
-        given(this.productRepository.save(product)).willReturn(product);
+    @Test
+    void updateStockById_withStockGoingBelowZero_throwsInsufficientStockException() {
+        //given
+        given(this.productRepository.adjustStock(1L, -20)).willReturn(Optional.empty());
+        given(this.productRepository.existsById(1L)).willReturn(true);
 
-        // When
-        StockProductDto actual = productService.updateStockById(1L, body);
+        //when
+        assertThrows(InsufficientStockException.class, () -> {
+            productService.updateStockById(1L, new StockProductDto(-20));
+        });
 
-        assertThat(actual.getStock()).isEqualTo(110); // update amount of stock
+        //then
+        verify(this.productRepository, never()).findStockById(anyLong());
+    }
+
+    @Test
+    void adjustStocks_withSomeRejectedItems_returnsAppliedCountAndRejectedIds() {
+        //given
+        StockBatchRequest body = new StockBatchRequest(List.of(
+                new StockAdjustmentRequest(1L, 10),
+                new StockAdjustmentRequest(2L, -5),
+                new StockAdjustmentRequest(3L, 7)));
+
+        given(this.productRepository.adjustStocks(body.items())).willReturn(new int[]{1, 0, 1});
+
+        //when
+        StockBatchResponse actual = productService.adjustStocks(body);
 
         //then
-        verify(this.productRepository, times(1)).findById(1L);
-        verify(this.productRepository, times(1)).save(product);
+        assertThat(actual.applied()).isEqualTo(2);
+        assertThat(actual.rejectedProductIds()).containsExactly(2L);
     }
 
     @Test
     void remove_withExistingId_setsDeletedFlagToTrue() {
         //given
         Product product = Product.builder()
+                .price(new BigDecimal(400))
                 .isDeleted(false)
                 .build();
 
@@ -220,6 +269,8 @@ class AdminProductServiceTest {
 
         //then
         assertTrue(product.isDeleted());
+        verify(this.productSearchIndex, times(1)).remove(1L);
+        verify(this.cartTotalService, times(1)).reprice(1L, new BigDecimal(-400));
 
         verify(this.productRepository, times(1)).findById(1L);
         verify(this.productRepository, times(1)).save(product);
@@ -0,0 +1,95 @@
+package com.dev.e_shop.product.admin;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.exception.custom.InsufficientStockException;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import com.dev.e_shop.product.dto.StockBatchRequest;
+import com.dev.e_shop.product.dto.StockBatchResponse;
+import com.dev.e_shop.product.dto.StockProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+@Transactional
+class AdminProductStockIntegrationTest {
+
+    @Autowired
+    AdminProductService adminProductService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    ProductFixture products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+    }
+
+    @Test
+    void updateStockById_withDelta_appliesItAtomically() {
+        //given
+        Product product = products.save("Stock phone", 10);
+
+        //when
+        StockProductDto actual = adminProductService.updateStockById(product.getId(), new StockProductDto(5));
+
+        //then
+        assertThat(actual.getStock()).isEqualTo(15);
+        assertThat(productRepository.findStockById(product.getId())).contains(15);
+    }
+
+    @Test
+    void updateStockById_withStockGoingBelowZero_leavesStockUnchanged() {
+        //given
+        Product product = products.save("Stock phone", 10);
+
+        //when
+        assertThrows(InsufficientStockException.class, () -> {
+            adminProductService.updateStockById(product.getId(), new StockProductDto(-11));
+        });
+
+        //then
+        assertThat(productRepository.findStockById(product.getId())).contains(10);
+    }
+
+    @Test
+    void adjustStocks_withBatch_appliesValidItemsAndReportsRejected() {
+        //given
+        Product first = products.save("Stock phone 1", 10);
+        Product second = products.save("Stock phone 2", 3);
+
+        StockBatchRequest body = new StockBatchRequest(List.of(
+                new StockAdjustmentRequest(first.getId(), 5),
+                new StockAdjustmentRequest(second.getId(), -4),
+                new StockAdjustmentRequest(first.getId(), -15),
+                new StockAdjustmentRequest(999_999L, 1)));
+        productRepository.flush();
+
+        //when
+        StockBatchResponse actual = adminProductService.adjustStocks(body);
+
+        //then
+        assertThat(actual.applied()).isEqualTo(2);
+        assertThat(actual.rejectedProductIds()).containsExactly(second.getId(), 999_999L);
+        assertThat(productRepository.findStockById(first.getId())).contains(0);
+        assertThat(productRepository.findStockById(second.getId())).contains(3);
+    }
+}
@@ -3,6 +3,7 @@ package com.dev.e_shop.product.admin;
 import com.dev.e_shop.config.EmbeddedRedisConfig;
 import com.dev.e_shop.product.Product;
 import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.cache.ProductCacheKeys;
 import com.dev.e_shop.product.dto.CreateProductRequest;
 import com.dev.e_shop.product.dto.ProductResponse;
 import com.dev.e_shop.product.dto.UpdateProductRequest;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.annotation.Rollback;
@@ -28,7 +30,11 @@ import static org.mockito.BDDMockito.given;
 @SpringBootTest
 @ActiveProfiles("test")
 @Import(EmbeddedRedisConfig.class)
-@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+//redis is flushed before each test, so generations must not be served from the local mirror
+@TestPropertySource(properties = {
+        "spring.main.allow-bean-definition-overriding=true",
+        "cache.products.generation-refresh=PT0S"
+})
 public class AdminServiceCacheIntegrationTest {
     @Autowired
     AdminProductService adminProductService;
@@ -42,18 +48,23 @@ public class AdminServiceCacheIntegrationTest {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductCacheKeys productCacheKeys;
+
     @BeforeEach
     void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         redisTemplate.getConnectionFactory().getConnection().flushAll();
     }
 
     @Test
-    @Transactional
-    @Rollback
     void updateProduct_whenUpdated_removeRelatedCache() {
         //given
         String keyById = "product::1";
-        String keyByPagination = "products::0:5";
+        String keyByPagination = "products::" + productCacheKeys.page(0, 5);
 
         CreateProductRequest body = new CreateProductRequest(
                 "Iphone 16",
@@ -83,18 +94,17 @@ public class AdminServiceCacheIntegrationTest {
 
         //then
         Boolean hasKeyById = redisTemplate.hasKey(keyById);
-        Boolean hasKeyPagination = redisTemplate.hasKey(keyByPagination);
 
         assertThat(hasKeyById).isFalse();
-        assertThat(hasKeyPagination).isFalse();
+        assertThat("products::" + productCacheKeys.page(0, 5)).isNotEqualTo(keyByPagination);
     }
 
     @Test
-    @Transactional
-    @Rollback
     void create_whenAdded_refreshCacheWithLastedProducts() {
         // given
-        String keyByPagination = "products::0:5";
+        String keyByPagination = productCacheKeys.page(0, 5);
+        String keyByMatchingSearch = productCacheKeys.search("Iphone", 0, 5);
+        String keyByOtherSearch = productCacheKeys.search("Galaxy", 0, 5);
         CreateProductRequest body = new CreateProductRequest(
                 "Iphone 18",
                 new BigDecimal("300.0"),
@@ -140,9 +150,9 @@ public class AdminServiceCacheIntegrationTest {
         this.adminProductService.create(body);
 
         // then
-        Boolean hasKeyPagination = redisTemplate.hasKey(keyByPagination);
-
-        assertThat(hasKeyPagination).isFalse();
+        assertThat(productCacheKeys.page(0, 5)).isNotEqualTo(keyByPagination);
+        assertThat(productCacheKeys.search("Iphone", 0, 5)).isNotEqualTo(keyByMatchingSearch);
+        assertThat(productCacheKeys.search("Galaxy", 0, 5)).isEqualTo(keyByOtherSearch);
     }
 
     @Test
@@ -0,0 +1,84 @@
+package com.dev.e_shop.product.search;
+
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @InjectMocks
+    ProductSearchIndex productSearchIndex;
+
+    @Mock
+    ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        given(productRepository.findAll()).willReturn(List.of(
+                Product.builder().id(1).name("Iphone 16").brand("Apple").description("A new phone").build(),
+                Product.builder().id(2).name("Galaxy S25").brand("Samsung").description("Better than iphone").build(),
+                Product.builder().id(3).name("Điện thoại Iphone 16 Pro").brand("Apple").build()
+        ));
+
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_withNameKeyword_ranksNameMatchesFirst() {
+        //when
+        ProductSearchIndex.SearchResult actual = productSearchIndex.search("iphone", 0, 10);
+
+        //then
+        assertThat(actual.total()).isEqualTo(3);
+        assertThat(actual.ids()).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void search_withPrefixAndDiacritics_matchesAllTerms() {
+        //when
+        ProductSearchIndex.SearchResult actual = productSearchIndex.search("dien IPH pro", 0, 10);
+
+        //then
+        assertThat(actual.ids()).containsExactly(3L);
+    }
+
+    @Test
+    void search_withPage_returnsRequestedSlice() {
+        //when
+        ProductSearchIndex.SearchResult actual = productSearchIndex.search("iphone", 1, 2);
+
+        //then
+        assertThat(actual.total()).isEqualTo(3);
+        assertThat(actual.ids()).containsExactly(2L);
+    }
+
+    @Test
+    void index_withUpdatedProduct_replacesPreviousTerms() {
+        //when
+        productSearchIndex.index(Product.builder().id(1).name("Pixel 9").brand("Google").build());
+
+        //then
+        assertThat(productSearchIndex.search("iphone", 0, 10).ids()).containsExactly(3L, 2L);
+        assertThat(productSearchIndex.search("pixel", 0, 10).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void remove_withIndexedProduct_dropsItFromResults() {
+        //when
+        productSearchIndex.remove(3L);
+
+        //then
+        assertThat(productSearchIndex.search("iphone", 0, 10).ids()).containsExactly(1L, 2L);
+    }
+}
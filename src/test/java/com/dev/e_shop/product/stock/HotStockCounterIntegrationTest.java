@@ -0,0 +1,201 @@
+package com.dev.e_shop.product.stock;
+
+import com.dev.e_shop.config.EmbeddedRedisConfig;
+import com.dev.e_shop.product.Product;
+import com.dev.e_shop.product.ProductFixture;
+import com.dev.e_shop.product.ProductRepository;
+import com.dev.e_shop.product.dto.StockAdjustmentRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.main.allow-bean-definition-overriding=true")
+class HotStockCounterIntegrationTest {
+
+    @Autowired
+    StringRedisTemplate redisTemplate;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    ProductFixture products;
+    Product first;
+    Product second;
+
+    HotStockCounter hotStockCounter;
+    HotStockReconciler hotStockReconciler;
+
+    @BeforeEach
+    void setUp() {
+        products = new ProductFixture(productRepository);
+        first = products.save("Hot phone 1", 5);
+        second = products.save("Hot phone 2", 1);
+
+        hotStockCounter = new HotStockCounter(redisTemplate, productRepository, true,
+                Set.of(first.getId(), second.getId()));
+        hotStockReconciler = new HotStockReconciler(hotStockCounter, productRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(List.of(
+                HotStockCounter.PENDING_KEY,
+                HotStockCounter.LOCK_KEY,
+                HotStockCounter.COUNTER_PREFIX + first.getId(),
+                HotStockCounter.COUNTER_PREFIX + second.getId()));
+        products.deleteAll();
+    }
+
+    @Test
+    void reserve_fromManyThreads_neverOversellsAndReconcilesIntoProduct() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 1))).isEmpty()) {
+                    succeeded.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        //when
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(succeeded.get()).isEqualTo(5);
+        assertThat(productRepository.findStockById(first.getId())).contains(5);
+
+        //when
+        int reconciled = hotStockReconciler.reconcile();
+
+        //then
+        assertThat(reconciled).isEqualTo(1);
+        assertThat(productRepository.findStockById(first.getId())).contains(0);
+        assertThat(hotStockCounter.drainPending()).isEmpty();
+    }
+
+    @Test
+    void reserve_withOneProductShort_takesNothing() {
+        //when
+        Optional<Long> actual = hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 2, second.getId(), 2)));
+
+        //then
+        assertThat(actual).contains(second.getId());
+        assertThat(hotStockCounter.drainPending()).isEmpty();
+        assertThat(hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 5)))).isEmpty();
+    }
+
+    @Test
+    void release_afterReserve_givesStockBackWithoutPendingChange() {
+        //given
+        SortedMap<Long, Integer> quantities = new TreeMap<>(Map.of(second.getId(), 1));
+        hotStockCounter.reserve(quantities);
+
+        //when
+        hotStockCounter.release(quantities);
+
+        //then
+        assertThat(hotStockCounter.drainPending()).isEmpty();
+        assertThat(hotStockCounter.reserve(quantities)).isEmpty();
+    }
+
+    @Test
+    void reserve_afterCounterLost_seedsFromProductAndUnreconciledChanges() {
+        //given
+        hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 2)));
+        redisTemplate.delete(HotStockCounter.COUNTER_PREFIX + first.getId());
+
+        //when
+        Optional<Long> tooMany = hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 4)));
+        Optional<Long> rest = hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 3)));
+
+        //then
+        assertThat(tooMany).contains(first.getId());
+        assertThat(rest).isEmpty();
+    }
+
+    @Test
+    void reconcile_whenTransactionRollsBack_keepsChangesPending() {
+        //given
+        hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 2)));
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            hotStockReconciler.reconcile();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(productRepository.findStockById(first.getId())).contains(5);
+        assertThat(hotStockCounter.drainPending()).containsEntry(first.getId(), -2);
+    }
+
+    @Test
+    void reconcile_withChangeTheColumnRefuses_dropsItAndReseedsCounter() {
+        //given
+        hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 2)));
+        productRepository.adjustStocks(List.of(new StockAdjustmentRequest(first.getId(), -4)));
+
+        //when
+        hotStockReconciler.reconcile();
+
+        //then
+        assertThat(productRepository.findStockById(first.getId())).contains(1);
+        assertThat(redisTemplate.hasKey(HotStockCounter.COUNTER_PREFIX + first.getId())).isFalse();
+        assertThat(hotStockReconciler.reconcile()).isZero();
+        assertThat(hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 2)))).contains(first.getId());
+        assertThat(hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 1)))).isEmpty();
+    }
+
+    @Test
+    void reserve_whileReconcileHoldsLock_seedsOnlyAfterIt() throws Exception {
+        //given
+        assertThat(hotStockCounter.lockReconcile()).isTrue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //when
+        Future<Optional<Long>> reserved = executor.submit(() ->
+                hotStockCounter.reserve(new TreeMap<>(Map.of(first.getId(), 1))));
+
+        //then
+        Thread.sleep(100);
+        assertThat(reserved.isDone()).isFalse();
+        assertThat(hotStockReconciler.reconcile()).isZero();
+
+        //when
+        hotStockCounter.unlockReconcile();
+
+        //then
+        assertThat(reserved.get(5, TimeUnit.SECONDS)).isEmpty();
+        executor.shutdown();
+    }
+}